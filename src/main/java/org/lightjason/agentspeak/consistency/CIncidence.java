@@ -0,0 +1,192 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
+import org.lightjason.agentspeak.language.ITerm;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * sparse agent-term incidence matrix M, the symmetric difference
+ * of two agents is |A| + |B| - 2 |A &cap; B| and all intersections
+ * are the entries of M M^T, so the symmetric difference matrix can
+ * be multiplied with a vector without creating the matrix
+ */
+final class CIncidence implements IOperator
+{
+    /**
+     * term indices of each agent (rows of M)
+     */
+    private final int[][] m_rows;
+    /**
+     * agent indices of each term (columns of M)
+     */
+    private final int[][] m_columns;
+    /**
+     * number of distinct terms of each agent
+     */
+    private final double[] m_sizes;
+    /**
+     * diagonal value
+     */
+    private final double m_diagonal;
+    /**
+     * buffer of the term vector
+     */
+    private final double[] m_terms;
+
+    /**
+     * ctor
+     *
+     * @param p_rows term indices of each agent
+     * @param p_terms number of terms
+     * @param p_diagonal diagonal value
+     */
+    private CIncidence( @Nonnull final int[][] p_rows, @Nonnegative final int p_terms, final double p_diagonal )
+    {
+        m_rows = p_rows;
+        m_diagonal = p_diagonal;
+        m_terms = new double[p_terms];
+        m_sizes = Arrays.stream( p_rows ).mapToDouble( i -> i.length ).toArray();
+
+        // transpose the rows by counting the agents of each term
+        final int[] l_count = new int[p_terms];
+        Arrays.stream( p_rows ).flatMapToInt( Arrays::stream ).forEach( i -> l_count[i]++ );
+
+        m_columns = new int[p_terms][];
+        for ( int i = 0; i < p_terms; i++ )
+            m_columns[i] = new int[l_count[i]];
+
+        Arrays.fill( l_count, 0 );
+        for ( int i = 0; i < p_rows.length; i++ )
+            for ( final int l_term : p_rows[i] )
+                m_columns[l_term][l_count[l_term]++] = i;
+    }
+
+    /**
+     * creates the incidence matrix of snapshots
+     *
+     * @param p_snapshots snapshots
+     * @param p_diagonal diagonal value of the symmetric difference matrix
+     * @return incidence matrix
+     */
+    @Nonnull
+    static CIncidence of( @Nonnull final ISnapshot[] p_snapshots, final double p_diagonal )
+    {
+        final Map<ITerm, Integer> l_index = new HashMap<>();
+        final int[][] l_rows = Arrays.stream( p_snapshots )
+                                     .map( i -> i.stream().distinct().mapToInt( j -> l_index.computeIfAbsent( j, k -> l_index.size() ) ).toArray() )
+                                     .toArray( int[][]::new );
+
+        return new CIncidence( l_rows, l_index.size(), p_diagonal );
+    }
+
+    @Nonnegative
+    @Override
+    public int size()
+    {
+        return m_rows.length;
+    }
+
+    /**
+     * sum of all off-diagonal elements of the symmetric difference
+     * matrix, which is 2 n &Sigma;|A| - 2 &Sigma; c_t&sup2; with the
+     * agent count c_t of each term
+     *
+     * @return sum
+     */
+    double sum()
+    {
+        double l_squares = 0;
+        for ( final int[] l_column : m_columns )
+            l_squares += (double) l_column.length * l_column.length;
+
+        return 2.0 * m_rows.length * Arrays.stream( m_sizes ).sum() - 2.0 * l_squares;
+    }
+
+    @Override
+    public void multiply( @Nonnull final double[] p_input, @Nonnull final double[] p_output )
+    {
+        // y_i = s_i sum(x) + s x - 2 (M M^T x)_i + diagonal x_i, the term buffer is not thread-safe
+        double l_sum = 0;
+        double l_weightedsum = 0;
+        for ( int i = 0; i < p_input.length; i++ )
+        {
+            l_sum += p_input[i];
+            l_weightedsum += m_sizes[i] * p_input[i];
+        }
+
+        // z = M^T x
+        for ( int i = 0; i < m_columns.length; i++ )
+        {
+            double l_value = 0;
+            for ( final int l_agent : m_columns[i] )
+                l_value += p_input[l_agent];
+            m_terms[i] = l_value;
+        }
+
+        // y = s X + s x - 2 M z + diagonal
+        for ( int i = 0; i < m_rows.length; i++ )
+        {
+            double l_value = 0;
+            for ( final int l_term : m_rows[i] )
+                l_value += m_terms[l_term];
+
+            p_output[i] = m_sizes[i] * l_sum + l_weightedsum - 2 * l_value + m_diagonal * p_input[i];
+        }
+    }
+
+    /**
+     * creates the dense symmetric difference matrix with a zero diagonal,
+     * the intersections are counted over the agents of each term
+     *
+     * @return row-major matrix
+     */
+    @Nonnull
+    double[][] matrix()
+    {
+        final double[][] l_matrix = new double[m_rows.length][m_rows.length];
+        for ( final int[] l_column : m_columns )
+            for ( int i = 0; i < l_column.length; i++ )
+                for ( int j = i + 1; j < l_column.length; j++ )
+                    l_matrix[l_column[i]][l_column[j]]++;
+
+        for ( int i = 0; i < m_rows.length; i++ )
+            for ( int j = i + 1; j < m_rows.length; j++ )
+            {
+                final double l_value = m_sizes[i] + m_sizes[j] - 2 * l_matrix[i][j];
+                l_matrix[i][j] = l_value;
+                l_matrix[j][i] = l_value;
+            }
+
+        return l_matrix;
+    }
+
+}
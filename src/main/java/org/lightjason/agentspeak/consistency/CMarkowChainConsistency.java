@@ -24,7 +24,6 @@
 package org.lightjason.agentspeak.consistency;
 
 import cern.colt.function.tdouble.DoubleFunction;
-import cern.colt.matrix.tdouble.DoubleFactory1D;
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
 import cern.colt.matrix.tdouble.DoubleMatrix2D;
 import cern.colt.matrix.tdouble.algo.DenseDoubleAlgebra;
@@ -34,24 +33,45 @@ import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D;
 import cern.colt.matrix.tdouble.impl.SparseDoubleMatrix1D;
 import cern.jet.math.tdouble.DoubleFunctions;
 import cern.jet.math.tdouble.DoubleMult;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.stat.descriptive.SynchronizedDescriptiveStatistics;
 import org.lightjason.agentspeak.agent.IAgent;
 import org.lightjason.agentspeak.consistency.filter.CBeliefFilter;
 import org.lightjason.agentspeak.consistency.filter.IFilter;
 import org.lightjason.agentspeak.consistency.metric.CNCD;
+import org.lightjason.agentspeak.consistency.metric.CSymmetricDifference;
+import org.lightjason.agentspeak.consistency.metric.IBoundedMetric;
 import org.lightjason.agentspeak.consistency.metric.IMetric;
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
 import org.lightjason.agentspeak.language.CCommon;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import java.nio.DoubleBuffer;
 import java.util.AbstractMap;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -77,10 +97,22 @@ public final class CMarkowChainConsistency implements IConsistency
      * default epsilon
      */
     public static final double DEFAULTEPSILON = CCommon.FLOATINGPRECISION.doubleValue();
+    /**
+     * default number of landmarks
+     */
+    public static final int DEFAULTLANDMARKS = 32;
     /**
      * default value on non-existing objects
      */
     private static final Map.Entry<Double, Double> DEFAULTNONEXISTING = new AbstractMap.SimpleImmutableEntry<>( 1.0, 0.0 );
+    /**
+     * empty published result
+     */
+    private static final Map.Entry<IAgent<?>[], double[][]> EMPTYRESULT = new AbstractMap.SimpleImmutableEntry<>( new IAgent<?>[0], new double[2][0] );
+    /**
+     * kernel of the row operations
+     */
+    private static final IKernel KERNEL = IKernel.INSTANCE;
     /**
      * algebra
      */
@@ -93,10 +125,18 @@ public final class CMarkowChainConsistency implements IConsistency
      * algorithm to calculate stationary probability
      **/
     private final EAlgorithm m_algorithm;
+    /**
+     * structure of the transition matrix
+     */
+    private final EStructure m_structure;
     /**
      * map with object and consistency & inconsistency value
      **/
     private final Map<IAgent<?>, Map.Entry<Double, Double>> m_data = new ConcurrentHashMap<>();
+    /**
+     * change listeners
+     */
+    private final List<CListener> m_listeners = new CopyOnWriteArrayList<>();
     /**
      * descriptive statistic
      */
@@ -117,6 +157,46 @@ public final class CMarkowChainConsistency implements IConsistency
      * number of iterations of the stochastic algorithm
      **/
     private final int m_iteration;
+    /**
+     * number of landmarks of the landmark structure
+     */
+    private final int m_landmarks;
+    /**
+     * error estimation of the last landmark calculation
+     */
+    private volatile double m_error;
+    /**
+     * quality of the last calculation
+     */
+    private volatile double m_quality = 1;
+    /**
+     * duration of the last solver run of the time-budgeted calculation in nanoseconds
+     */
+    private volatile long m_solvertime;
+    /**
+     * metric values of the last time-budgeted calculation
+     */
+    private volatile CCache m_cache;
+    /**
+     * retention flag of the transition matrix
+     */
+    private volatile boolean m_retain;
+    /**
+     * retained transition matrix with the agents of the rows
+     */
+    private volatile Map.Entry<IAgent<?>[], double[][]> m_transition;
+    /**
+     * agents of the last published result with the consistency and inconsistency values
+     */
+    private volatile Map.Entry<IAgent<?>[], double[][]> m_result = EMPTYRESULT;
+    /**
+     * cutoff of the metric values
+     */
+    private volatile double m_cutoff = Double.POSITIVE_INFINITY;
+    /**
+     * collapse flag of agents with equal snapshots
+     */
+    private volatile boolean m_collapse;
 
 
     /**
@@ -132,11 +212,68 @@ public final class CMarkowChainConsistency implements IConsistency
                                     @Nonnull final IMetric p_metric, final int p_iteration, final double p_epsilon
     )
     {
+        this( p_algorithm, EStructure.DENSE, p_filter, p_metric, p_iteration, p_epsilon );
+    }
+
+    /**
+     * ctor
+     *
+     * @param p_algorithm algorithm
+     * @param p_structure structure of the transition matrix
+     * @param p_filter metric filter
+     * @param p_metric object metric
+     * @param p_iteration iterations
+     * @param p_epsilon epsilon consistency
+     */
+    public CMarkowChainConsistency( @Nonnull final EAlgorithm p_algorithm, @Nonnull final EStructure p_structure, @Nonnull final IFilter p_filter,
+                                    @Nonnull final IMetric p_metric, final int p_iteration, final double p_epsilon
+    )
+    {
+        this( p_algorithm, p_structure, p_filter, p_metric, p_iteration, p_epsilon, DEFAULTLANDMARKS );
+    }
+
+    /**
+     * ctor
+     *
+     * @param p_algorithm algorithm
+     * @param p_structure structure of the transition matrix
+     * @param p_filter metric filter
+     * @param p_metric object metric
+     * @param p_iteration iterations
+     * @param p_epsilon epsilon consistency
+     * @param p_landmarks number of landmarks of the landmark structure
+     */
+    public CMarkowChainConsistency( @Nonnull final EAlgorithm p_algorithm, @Nonnull final EStructure p_structure, @Nonnull final IFilter p_filter,
+                                    @Nonnull final IMetric p_metric, final int p_iteration, final double p_epsilon,
+                                    @Nonnegative final int p_landmarks
+    )
+    {
+        if ( p_structure == EStructure.INCIDENCE && !( p_metric instanceof CSymmetricDifference ) )
+            throw new IllegalArgumentException( "incidence structure can be used with the symmetric difference only" );
+        if ( p_structure == EStructure.LANDMARK && p_landmarks < 1 )
+            throw new IllegalArgumentException( "landmark structure needs at least one landmark" );
+
+        m_structure = p_structure;
         m_filter = p_filter;
         m_metric = p_metric;
         m_algorithm = p_algorithm;
         m_iteration = p_iteration;
         m_epsilon = p_epsilon;
+        m_landmarks = p_landmarks;
+    }
+
+    /**
+     * returns the error estimation of the last landmark calculation, it is the
+     * mean half width of the triangle inequality bounds relative to the mean
+     * approximated metric value, so it is an upper bound of the relative error
+     * against the exact structure if the metric fulfills the triangle inequality
+     *
+     * @return relative error estimation, zero on exact structures
+     */
+    @Nonnegative
+    public double error()
+    {
+        return m_error;
     }
 
     @Nonnull
@@ -148,6 +285,39 @@ public final class CMarkowChainConsistency implements IConsistency
 
     @Override
     public IConsistency call() throws Exception
+    {
+        return this.calculate( Runnable::run, () -> false );
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<IConsistency> async( @Nonnull final Executor p_executor )
+    {
+        final CompletableFuture<IConsistency> l_future = new CompletableFuture<>();
+        p_executor.execute( () ->
+        {
+            try
+            {
+                l_future.complete( this.calculate( p_executor, l_future::isDone ) );
+            }
+            catch ( final Exception l_exception )
+            {
+                l_future.completeExceptionally( l_exception );
+            }
+        } );
+        return l_future;
+    }
+
+    /**
+     * runs the calculation
+     *
+     * @param p_executor executor of the filter and solver phase
+     * @param p_cancel cancellation flag, which is checked between the calculation steps
+     * @return self reference
+     * @throws CancellationException is thrown on cancellation
+     * @throws InterruptedException is thrown on thread interruption
+     */
+    private IConsistency calculate( @Nonnull final Executor p_executor, @Nonnull final BooleanSupplier p_cancel ) throws InterruptedException
     {
         if ( m_data.size() < 2 )
             return this;
@@ -155,209 +325,1271 @@ public final class CMarkowChainConsistency implements IConsistency
         // get key list of map for addressing elements in the correct order
         final IAgent<?>[] l_keys = m_data.keySet().toArray( new IAgent<?>[m_data.size()] );
 
-        // create symmatric matrix
-        final DoubleMatrix2D l_matrix = new DenseDoubleMatrix2D( l_keys.length, l_keys.length );
+        // filter phase, each agent is filtered once
+        final ISnapshot[] l_snapshots = this.filter( l_keys, p_executor, p_cancel );
 
-        // calculate markov chain transition matrix
-        generateindex( l_keys.length ).forEach( i ->
+        // agents with equal snapshots are collapsed into weighted classes
+        if ( m_collapse && m_structure != EStructure.INCIDENCE )
         {
-            final double l_value = this.getMetricValue( l_keys[i.getLeft()], l_keys[i.getRight()] );
-            l_matrix.setQuick( i.getLeft(), i.getRight(), l_value );
-            l_matrix.setQuick( i.getRight(), i.getLeft(), l_value );
-        } );
-
-        // row-wise normalization for getting probabilities
-        IntStream.range( 0, l_keys.length )
-                 .boxed()
-                 .forEach( i ->
-                 {
-                     final double l_norm = ALGEBRA.norm1( l_matrix.viewRow( i ) );
-                     if ( CCommon.floatingequal( l_norm, 0, m_epsilon ) )
-                         l_matrix.viewRow( i ).assign( DoubleMult.div( l_norm ) );
-
-                     // set epsilon slope for preventing periodic markov chains
-                     l_matrix.setQuick( i, i, m_epsilon );
-                 } );
+            final int[] l_class = new int[l_snapshots.length];
+            final ISnapshot[] l_distinct = classes( l_snapshots, l_class );
+            if ( l_distinct.length < l_snapshots.length )
+            {
+                final DoubleMatrix1D l_eigenvector = this.collapse( l_distinct, l_class, p_executor, p_cancel );
+                cancellation( p_cancel );
+                m_quality = 1;
+                return this.publish( l_keys, l_eigenvector, null );
+            }
+        }
 
-        // check for a zero-matrix
-        final DoubleMatrix1D l_eigenvector = l_matrix.zSum() <= l_keys.length * m_epsilon
-                                             ? new SparseDoubleMatrix1D( l_keys.length )
-                                             : m_algorithm.apply( m_iteration, l_matrix );
+        // calculate the stationary vector of the transition matrix
+        final double[][] l_matrix;
+        final DoubleMatrix1D l_eigenvector;
+        switch ( m_structure )
+        {
+            case INCIDENCE:
+                l_matrix = null;
+                l_eigenvector = this.incidence( l_snapshots, p_executor, p_cancel );
+                break;
 
-        // calculate the inverted probability and normalize with 1-norm
-        final DoubleMatrix1D l_invertedeigenvector = new DenseDoubleMatrix1D( l_eigenvector.toArray() );
-        l_invertedeigenvector.assign( PROBABILITYINVERT );
-        l_invertedeigenvector.assign( DoubleFunctions.div( ALGEBRA.norm1( l_eigenvector ) ) );
+            case LANDMARK:
+                l_matrix = this.landmark( l_snapshots, p_cancel );
+                l_eigenvector = this.solve( l_matrix, p_executor, p_cancel );
+                break;
 
-        // set consistency for each entry and update statistic
-        m_statistic.clear();
-        IntStream.range( 0, l_keys.length )
-                 .boxed()
-                 .peek( i -> m_statistic.addValue( l_eigenvector.get( i ) ) )
-                 .forEach( i -> m_data.put( l_keys[i], new AbstractMap.SimpleImmutableEntry<>( l_invertedeigenvector.get( i ), l_eigenvector.get( i ) ) ) );
+            default:
+                l_matrix = this.matrix( l_snapshots, p_cancel );
+                l_eigenvector = this.solve( l_matrix, p_executor, p_cancel );
+        }
 
-        return this;
+        cancellation( p_cancel );
+        m_quality = 1;
+        return this.publish( l_keys, l_eigenvector, l_matrix );
     }
 
+    /**
+     * runs the calculation within a time budget, the metric values of agent pairs with an
+     * unchanged snapshot are reused from the previous time-budgeted calculation, the pairs
+     * of changed agents are calculated first, if the budget expires the remaining values
+     * are the previous values or are estimated by the mean values of both agents, the
+     * calculation uses always the dense structure and the filter phase and the solver
+     * run completely, the time of the solver is reserved by the duration of the previous
+     * solver run, so the budget can be exceeded by a slower solver run
+     *
+     * @param p_time time budget
+     * @param p_unit time unit
+     * @return self reference
+     * @throws InterruptedException is thrown on thread interruption
+     */
     @Nonnull
-    @Override
-    public IConsistency clear()
+    public IConsistency call( @Nonnegative final long p_time, @Nonnull final TimeUnit p_unit ) throws InterruptedException
     {
-        m_statistic.clear();
-        m_data.clear();
-        return this;
+        if ( m_data.size() < 2 )
+            return this;
+
+        final long l_start = System.nanoTime();
+        final long l_budget = p_unit.toNanos( p_time );
+        final long l_deadline = l_start + l_budget - ( m_solvertime > 0 ? m_solvertime : l_budget / 5 );
+
+        final IAgent<?>[] l_keys = m_data.keySet().toArray( new IAgent<?>[m_data.size()] );
+        final ISnapshot[] l_snapshots = this.filter( l_keys, Runnable::run, () -> false );
+        final CCache l_cache = m_cache;
+
+        // previous index of each agent, changed agents have no previous index and are calculated first
+        final int[] l_previous = new int[l_keys.length];
+        final Integer[] l_order = new Integer[l_keys.length];
+        for ( int i = 0; i < l_keys.length; i++ )
+        {
+            l_order[i] = i;
+            l_previous[i] = Objects.isNull( l_cache ) ? -1 : l_cache.index( l_keys[i], l_snapshots[i] );
+        }
+        Arrays.sort( l_order, Comparator.comparingInt( i -> l_previous[i] < 0 ? 0 : 1 ) );
+
+        // exact values, unknown values are not-a-number
+        final double[][] l_values = new double[l_keys.length][l_keys.length];
+        for ( int i = 0; i < l_keys.length; i++ )
+            for ( int j = 0; j < l_keys.length; j++ )
+                l_values[i][j] = i == j ? 0
+                                 : l_previous[i] < 0 || l_previous[j] < 0 || !l_cache.m_exact[l_previous[i]].get( l_previous[j] ) ? Double.NaN
+                                 : l_cache.m_values[l_previous[i]][l_previous[j]];
+
+        for ( int i = 0; i < l_order.length && System.nanoTime() < l_deadline; i++ )
+            for ( int j = 0; j < l_keys.length && System.nanoTime() < l_deadline; j++ )
+                if ( Double.isNaN( l_values[l_order[i]][j] ) )
+                {
+                    final double l_value = this.getMetricValue( l_snapshots[l_order[i]], l_snapshots[j] );
+                    l_values[l_order[i]][j] = l_value;
+                    l_values[j][l_order[i]] = l_value;
+                }
+
+        final CCache l_next = new CCache( l_keys, l_snapshots, l_values );
+        estimate( l_values, l_cache, l_keys );
+
+        final long l_solverstart = System.nanoTime();
+        final double[][] l_matrix = Arrays.stream( l_values ).map( double[]::clone ).toArray( double[][]::new );
+        final DoubleMatrix1D l_eigenvector = this.solve( l_matrix, () -> false );
+        m_solvertime = System.nanoTime() - l_solverstart;
+
+        m_cache = l_next;
+        m_quality = l_next.quality();
+        return this.publish( l_keys, l_eigenvector, l_matrix );
     }
 
-    @Nonnull
-    @Override
-    public IConsistency add( @Nonnull final IAgent<?>... p_agents )
+    /**
+     * returns the quality of the last calculation, it is the ratio of the metric
+     * values, which are exactly calculated for the current snapshots
+     *
+     * @return quality in [0, 1], one on exact calculations
+     */
+    @Nonnegative
+    public double quality()
     {
-        return this.add( Arrays.stream( p_agents ) );
+        return m_quality;
     }
 
+    /**
+     * enables or disables the retention of the transition matrix,
+     * the retained matrix needs n&sup2; memory between the calculations
+     *
+     * @param p_retain retention flag
+     * @return self reference
+     */
     @Nonnull
-    @Override
-    public IConsistency add( @Nonnull final Stream<IAgent<?>> p_agents )
+    public CMarkowChainConsistency retain( final boolean p_retain )
     {
-        p_agents.forEach( i -> m_data.putIfAbsent( i, DEFAULTNONEXISTING ) );
+        m_retain = p_retain;
+        if ( !p_retain )
+            m_transition = null;
         return this;
     }
 
+    /**
+     * enables or disables the collapse of agents with equal snapshots into weighted
+     * classes, so the matrix size is the number of distinct snapshots, the incidence
+     * structure is not collapsed and a collapsed transition matrix is not retained
+     *
+     * @param p_collapse collapse flag
+     * @return self reference
+     */
     @Nonnull
-    @Override
-    public IConsistency remove( @Nonnull final IAgent<?>... p_agents )
+    public CMarkowChainConsistency collapse( final boolean p_collapse )
     {
-        return this.remove( Arrays.stream( p_agents ) );
+        m_collapse = p_collapse;
+        return this;
     }
 
+    /**
+     * sets the cutoff of the metric values, each value of the dense structure and
+     * the time-budgeted calculation is the minimum of the metric value and the
+     * cutoff, so a bounded metric stops the calculation of far-apart pairs at the
+     * cutoff, the landmark distances are calculated exactly
+     *
+     * @param p_cutoff cutoff, infinity disables the cutoff
+     * @return self reference
+     */
     @Nonnull
-    @Override
-    public IConsistency remove( @Nonnull final Stream<IAgent<?>> p_agents )
+    public CMarkowChainConsistency cutoff( @Nonnegative final double p_cutoff )
     {
-        p_agents.forEach( m_data::remove );
+        if ( Double.isNaN( p_cutoff ) || p_cutoff < 0 )
+            throw new IllegalArgumentException( "cutoff must be non-negative" );
+
+        m_cutoff = p_cutoff;
         return this;
     }
 
+    /**
+     * returns the transition matrix of the last calculation, if the retention
+     * is enabled and the structure creates a matrix, the rows are not copied
+     *
+     * @return stream of agent and matrix row in the order of the calculation
+     */
     @Nonnull
-    @Override
-    public Stream<Map.Entry<IAgent<?>, Double>> consistency()
+    public Stream<Map.Entry<IAgent<?>, double[]>> transition()
     {
-        return m_data.entrySet().stream().map( i -> new AbstractMap.SimpleImmutableEntry<>( i.getKey(), i.getValue().getKey() ) );
+        final Map.Entry<IAgent<?>[], double[][]> l_transition = m_transition;
+        return Objects.isNull( l_transition )
+               ? Stream.empty()
+               : IntStream.range( 0, l_transition.getKey().length )
+                          .mapToObj( i -> new AbstractMap.SimpleImmutableEntry<>( l_transition.getKey()[i], l_transition.getValue()[i] ) );
     }
 
-    @Nonnegative
-    @Override
-    public double consistency( @Nonnull final IAgent<?> p_agent )
+    /**
+     * publishes the stationary vector
+     *
+     * @param p_keys agents
+     * @param p_eigenvector stationary vector
+     * @param p_matrix transition matrix or null
+     * @return self reference
+     */
+    private IConsistency publish( @Nonnull final IAgent<?>[] p_keys, @Nonnull final DoubleMatrix1D p_eigenvector, final double[][] p_matrix )
     {
-        return m_data.getOrDefault( p_agent, DEFAULTNONEXISTING ).getKey();
+        m_transition = m_retain && Objects.nonNull( p_matrix ) ? new AbstractMap.SimpleImmutableEntry<>( p_keys, p_matrix ) : null;
+
+        // calculate the inverted probability and normalize with 1-norm
+        final DoubleMatrix1D l_invertedeigenvector = new DenseDoubleMatrix1D( p_eigenvector.toArray() );
+        l_invertedeigenvector.assign( PROBABILITYINVERT );
+        l_invertedeigenvector.assign( DoubleFunctions.div( ALGEBRA.norm1( p_eigenvector ) ) );
+
+        // set consistency for each entry, update statistic and collect the changes of each listener
+        final CListener[] l_listeners = m_listeners.toArray( new CListener[0] );
+        final List<Map<IAgent<?>, Double>> l_changes = Arrays.stream( l_listeners )
+                                                             .map( i -> new HashMap<IAgent<?>, Double>() )
+                                                             .collect( Collectors.toList() );
+
+        final double[][] l_result = new double[2][p_keys.length];
+        m_statistic.clear();
+        for ( int i = 0; i < p_keys.length; i++ )
+        {
+            final double l_consistency = l_invertedeigenvector.get( i );
+            m_statistic.addValue( p_eigenvector.get( i ) );
+            l_result[0][i] = l_consistency;
+            l_result[1][i] = p_eigenvector.get( i );
+
+            final Map.Entry<Double, Double> l_previous = m_data.put(
+                p_keys[i], new AbstractMap.SimpleImmutableEntry<>( l_consistency, p_eigenvector.get( i ) )
+            );
+
+            for ( int j = 0; j < l_changes.size(); j++ )
+                if ( l_listeners[j].changed( Objects.isNull( l_previous ) ? DEFAULTNONEXISTING.getKey() : l_previous.getKey(), l_consistency ) )
+                    l_changes.get( j ).put( p_keys[i], l_consistency );
+        }
+        m_result = new AbstractMap.SimpleImmutableEntry<>( p_keys, l_result );
+
+        for ( int j = 0; j < l_changes.size(); j++ )
+            l_listeners[j].m_listener.changed( this, Collections.unmodifiableMap( l_changes.get( j ) ) );
+
+        return this;
     }
 
-    @Nonnegative
-    @Override
-    public double inconsistency( @Nonnull final IAgent<?> p_agent )
+    /**
+     * replaces the unknown values, an unknown value is the previous
+     * value of both agents or the mean of the exact values of both
+     * agents or the mean of all exact values
+     *
+     * @param p_values exact values, unknown values are not-a-number
+     * @param p_cache previous calculation or null
+     * @param p_keys agents
+     */
+    private static void estimate( @Nonnull final double[][] p_values, final CCache p_cache, @Nonnull final IAgent<?>[] p_keys )
     {
-        return m_data.getOrDefault( p_agent, DEFAULTNONEXISTING ).getValue();
+        final double[] l_sum = new double[p_values.length];
+        final int[] l_count = new int[p_values.length];
+        double l_total = 0;
+        long l_totalcount = 0;
+        for ( int i = 0; i < p_values.length; i++ )
+            for ( int j = 0; j < p_values.length; j++ )
+                if ( i != j && !Double.isNaN( p_values[i][j] ) )
+                {
+                    l_sum[i] += p_values[i][j];
+                    l_count[i]++;
+                    l_total += p_values[i][j];
+                    l_totalcount++;
+                }
+
+        final double l_mean = l_totalcount == 0 ? 0 : l_total / l_totalcount;
+        final int[] l_previous = Arrays.stream( p_keys ).mapToInt( i -> Objects.isNull( p_cache ) ? -1 : p_cache.index( i ) ).toArray();
+        for ( int i = 0; i < p_values.length; i++ )
+            for ( int j = 0; j < p_values.length; j++ )
+                if ( Double.isNaN( p_values[i][j] ) )
+                    p_values[i][j] = l_previous[i] >= 0 && l_previous[j] >= 0 ? p_cache.m_values[l_previous[i]][l_previous[j]]
+                                     : l_count[i] > 0 && l_count[j] > 0 ? ( l_sum[i] / l_count[i] + l_sum[j] / l_count[j] ) / 2
+                                     : l_mean;
     }
 
+    /**
+     * groups the snapshots into classes of equal snapshots
+     *
+     * @param p_snapshots snapshots
+     * @param p_class class index of each snapshot
+     * @return snapshot of each class
+     */
     @Nonnull
-    @Override
-    public Stream<Map.Entry<IAgent<?>, Double>> inconsistency()
+    private static ISnapshot[] classes( @Nonnull final ISnapshot[] p_snapshots, @Nonnull final int[] p_class )
     {
-        return m_data.entrySet().stream().map( i -> new AbstractMap.SimpleImmutableEntry<>( i.getKey(), i.getValue().getValue() ) );
+        final Map<List<Object>, Integer> l_index = new HashMap<>();
+        for ( int i = 0; i < p_snapshots.length; i++ )
+            p_class[i] = l_index.computeIfAbsent(
+                List.of( p_snapshots[i].encoding(), p_snapshots[i].size(), p_snapshots[i].lowdigest(), p_snapshots[i].highdigest() ),
+                j -> l_index.size()
+            );
+
+        final ISnapshot[] l_distinct = new ISnapshot[l_index.size()];
+        for ( int i = p_snapshots.length - 1; i >= 0; i-- )
+            l_distinct[p_class[i]] = p_snapshots[i];
+        return l_distinct;
     }
 
     /**
-     * returns metric consistency
+     * calculates the stationary vector over the classes of equal snapshots, the class
+     * matrix is B_IJ = w_J A_IJ with the diagonal (w_I - 1) A_II + epsilon, so each class
+     * row is the row of each of its agents, the stationary distribution holds the mass
+     * of a class and is divided by the class size, the eigenvector holds the value of
+     * each agent
      *
-     * @param p_first first element
-     * @param p_second secend element
-     * @return metric consistency
+     * @param p_distinct snapshot of each class
+     * @param p_class class index of each agent
+     * @param p_executor executor of the solver
+     * @param p_cancel cancellation flag
+     * @return stationary vector of the agents
      */
-    private double getMetricValue( final IAgent<?> p_first, final IAgent<?> p_second )
+    @Nonnull
+    private DoubleMatrix1D collapse( @Nonnull final ISnapshot[] p_distinct, @Nonnull final int[] p_class, @Nonnull final Executor p_executor,
+                                     @Nonnull final BooleanSupplier p_cancel )
     {
-        if ( p_first.equals( p_second ) )
-            return 0;
+        final double[] l_weight = new double[p_distinct.length];
+        for ( final int l_class : p_class )
+            l_weight[l_class]++;
 
-        return m_metric.apply(
-            m_filter.apply( p_first ),
-            m_filter.apply( p_second )
-        ).doubleValue();
+        final double[][] l_matrix = m_structure == EStructure.LANDMARK ? this.landmark( p_distinct, p_cancel ) : this.matrix( p_distinct, p_cancel );
+        final double[] l_diagonal = new double[p_distinct.length];
+        for ( int i = 0; i < l_matrix.length; i++ )
+        {
+            for ( int j = 0; j < l_matrix.length; j++ )
+                l_matrix[i][j] *= l_weight[j];
+            l_diagonal[i] = l_weight[i] > 1 ? ( l_weight[i] - 1 ) * this.getMetricValue( p_distinct[i], p_distinct[i] ) : 0;
+        }
+
+        final DoubleMatrix1D l_vector = this.solve( l_matrix, l_weight, l_diagonal, p_executor, p_cancel );
+        final double[] l_values = new double[p_class.length];
+        double l_sum = 0;
+        for ( int i = 0; i < p_class.length; i++ )
+        {
+            l_values[i] = l_vector.get( p_class[i] ) / ( m_algorithm.stationary() ? l_weight[p_class[i]] : 1 );
+            l_sum += l_values[i];
+        }
+
+        if ( l_sum > 0 )
+            KERNEL.scale( l_values, 1 / l_sum );
+        return new DenseDoubleMatrix1D( l_values );
     }
 
     /**
-     * generates the index pairs or a matrix
+     * creates the transition matrix with the pairwise metric values
      *
-     * @param p_size size
-     * @return stream with index pairs
+     * @param p_snapshots snapshots
+     * @param p_cancel cancellation flag
+     * @return symmetric row-major matrix
      */
-    private static Stream<Pair<Integer, Integer>> generateindex( final int p_size )
+    double[][] matrix( @Nonnull final ISnapshot[] p_snapshots, @Nonnull final BooleanSupplier p_cancel )
     {
-        return IntStream.range( 0, p_size ).boxed().flatMap( i -> IntStream.range( i, p_size ).filter( j -> i != j ).boxed().map( j -> new ImmutablePair<>( i, j ) ) );
-    }
+        final double[][] l_matrix = new double[p_snapshots.length][p_snapshots.length];
+
+        // calculate markov chain transition matrix row-by-row, so cancellation is checked between the row tiles,
+        // the upper triangle of a row is calculated with one metric call and mirrored to the lower triangle,
+        // with a cutoff each pair is calculated with the bound
+        final boolean l_cutoff = Double.isFinite( m_cutoff );
+        for ( int i = 0; i < p_snapshots.length; i++ )
+        {
+            cancellation( p_cancel );
+            if ( l_cutoff )
+                for ( int j = i + 1; j < p_snapshots.length; j++ )
+                    l_matrix[i][j] = this.getMetricValue( p_snapshots[i], p_snapshots[j] );
+            else
+                m_metric.row( p_snapshots[i], p_snapshots, i + 1, p_snapshots.length, l_matrix[i] );
 
+            for ( int j = i + 1; j < p_snapshots.length; j++ )
+                l_matrix[j][i] = l_matrix[i][j];
+        }
 
+        return l_matrix;
+    }
 
     /**
-     * numeric algorithm structure
+     * creates the approximated transition matrix with landmarks, the landmarks
+     * are selected by farthest point sampling, so only the metric values between
+     * each agent and the landmarks are calculated, each matrix value is the
+     * midpoint of the triangle inequality bounds max_k |d_ik - d_jk| and
+     * min_k d_ik + d_jk, which are exact if one agent is a landmark
+     *
+     * @param p_snapshots snapshots
+     * @param p_cancel cancellation flag
+     * @return symmetric row-major matrix
      */
-    public enum EAlgorithm implements BiFunction<Integer, DoubleMatrix2D, DoubleMatrix1D>
+    private double[][] landmark( @Nonnull final ISnapshot[] p_snapshots, @Nonnull final BooleanSupplier p_cancel )
     {
-        /**
-         * use numeric algorithm (QR decomposition)
-         **/
-        NUMERICAL
+        final double[][] l_distance = new double[p_snapshots.length][Math.min( m_landmarks, p_snapshots.length )];
+        final double[] l_nearest = new double[p_snapshots.length];
+        final double[] l_row = new double[p_snapshots.length];
+        Arrays.fill( l_nearest, Double.POSITIVE_INFINITY );
+
+        // farthest point sampling, the next landmark is the agent with the largest distance to all landmarks
+        int l_landmarks = 0;
+        for ( int l_landmark = 0; l_landmarks < l_distance[0].length; l_landmarks++ )
         {
-            @Override
-            public DoubleMatrix1D apply( final Integer p_iteration, final DoubleMatrix2D p_matrix )
+            cancellation( p_cancel );
+
+            m_metric.row( p_snapshots[l_landmark], p_snapshots, 0, l_landmark, l_row );
+            m_metric.row( p_snapshots[l_landmark], p_snapshots, l_landmark + 1, p_snapshots.length, l_row );
+            l_row[l_landmark] = 0;
+
+            for ( int i = 0; i < p_snapshots.length; i++ )
             {
-                return normalize( getLargestEigenvector( p_matrix ) );
+                l_distance[i][l_landmarks] = l_row[i];
+                l_nearest[i] = Math.min( l_nearest[i], l_row[i] );
             }
-        },
-        /**
-         * use stochastic algorithm (fixpoint iteration)
-         **/
-        FIXPOINT
-        {
-            @Override
-            public DoubleMatrix1D apply( final Integer p_iteration, final DoubleMatrix2D p_matrix )
+
+            int l_farthest = l_landmark;
+            for ( int i = 0; i < p_snapshots.length; i++ )
+                if ( l_nearest[i] > l_nearest[l_farthest] )
+                    l_farthest = i;
+
+            // all agents are equal to a landmark
+            if ( l_nearest[l_farthest] <= 0 )
             {
-                return normalize( getLargestEigenvector( p_matrix, p_iteration ) );
+                l_landmarks++;
+                break;
             }
-        };
-
+            l_landmark = l_farthest;
+        }
 
-        /**
-         * normalize eigenvector and create positiv oriantation
-         *
-         * @param p_eigenvector eigen vector
-         * @return normalized eigen vector
-         */
-        private static DoubleMatrix1D normalize( @Nonnull  final DoubleMatrix1D p_eigenvector )
+        final double[][] l_matrix = new double[p_snapshots.length][p_snapshots.length];
+        double l_width = 0;
+        double l_sum = 0;
+        for ( int i = 0; i < p_snapshots.length; i++ )
         {
-            p_eigenvector.assign( DoubleMult.div( ALGEBRA.norm1( p_eigenvector ) ) );
-            p_eigenvector.assign( DoubleFunctions.abs );
-            return p_eigenvector;
+            cancellation( p_cancel );
+            final double[] l_first = l_distance[i];
+            for ( int j = i + 1; j < p_snapshots.length; j++ )
+            {
+                final double[] l_second = l_distance[j];
+
+                double l_lower = 0;
+                double l_upper = Double.POSITIVE_INFINITY;
+                for ( int k = 0; k < l_landmarks; k++ )
+                {
+                    l_lower = Math.max( l_lower, Math.abs( l_first[k] - l_second[k] ) );
+                    l_upper = Math.min( l_upper, l_first[k] + l_second[k] );
+                }
+
+                final double l_value = ( l_lower + l_upper ) / 2;
+                l_matrix[i][j] = l_value;
+                l_matrix[j][i] = l_value;
+                l_width += l_upper - l_value;
+                l_sum += l_value;
+            }
         }
 
-        /**
-         * get the largest eigen vector based on the perron-frobenius theorem
-         *
-         * @param p_matrix matrix
-         * @param p_iteration number of iterations
-         * @return largest eigenvector (not normalized)
-         *
-         * @see <a href="http://en.wikipedia.org/wiki/Perron%E2%80%93Frobenius_theorem"></a>
-         */
-        private static DoubleMatrix1D getLargestEigenvector( final DoubleMatrix2D p_matrix, final int p_iteration )
-        {
-            final DoubleMatrix1D l_probability = DoubleFactory1D.dense.random( p_matrix.rows() );
-            IntStream.range( 0, p_iteration )
-                     .forEach( i ->
-                     {
-                         l_probability.assign( ALGEBRA.mult( p_matrix, l_probability ) );
-                         l_probability.assign( DoubleMult.div( ALGEBRA.norm2( l_probability ) ) );
-                     } );
-            return l_probability;
+        m_error = l_sum > 0 ? l_width / l_sum : 0;
+        return l_matrix;
+    }
+
+    /**
+     * calculates the stationary vector of a transition matrix
+     *
+     * @param p_matrix row-major transition matrix
+     * @param p_cancel cancellation flag
+     * @return stationary vector
+     */
+    DoubleMatrix1D solve( @Nonnull final double[][] p_matrix, @Nonnull final BooleanSupplier p_cancel )
+    {
+        return this.solve( p_matrix, Runnable::run, p_cancel );
+    }
+
+    /**
+     * calculates the stationary vector of a transition matrix
+     *
+     * @param p_matrix row-major transition matrix
+     * @param p_executor executor of the solver
+     * @param p_cancel cancellation flag
+     * @return stationary vector
+     */
+    private DoubleMatrix1D solve( @Nonnull final double[][] p_matrix, @Nonnull final Executor p_executor, @Nonnull final BooleanSupplier p_cancel )
+    {
+        final double[] l_weight = new double[p_matrix.length];
+        Arrays.fill( l_weight, 1 );
+        return this.solve( p_matrix, l_weight, new double[p_matrix.length], p_executor, p_cancel );
+    }
+
+    /**
+     * calculates the stationary vector of a transition matrix, each
+     * row stands for a number of agents, which is the row weight
+     *
+     * @param p_matrix row-major transition matrix
+     * @param p_weight number of agents of each row
+     * @param p_diagonal diagonal value of each row without the epsilon slope
+     * @param p_executor executor of the solver
+     * @param p_cancel cancellation flag
+     * @return stationary vector
+     */
+    private DoubleMatrix1D solve( @Nonnull final double[][] p_matrix, @Nonnull final double[] p_weight, @Nonnull final double[] p_diagonal,
+                                  @Nonnull final Executor p_executor, @Nonnull final BooleanSupplier p_cancel )
+    {
+        // row-wise normalization for getting probabilities, the rows are processed by the kernel
+        double l_sum = 0;
+        double l_count = 0;
+        for ( int i = 0; i < p_matrix.length; i++ )
+        {
+            final double[] l_row = p_matrix[i];
+            final double l_norm = KERNEL.norm1( l_row );
+
+            if ( CCommon.floatingequal( l_norm, 0, m_epsilon ) )
+                KERNEL.scale( l_row, 1 / l_norm );
+
+            // set epsilon slope for preventing periodic markov chains
+            l_row[i] = m_epsilon + p_diagonal[i];
+            l_sum += p_weight[i] * KERNEL.norm1( l_row );
+            l_count += p_weight[i];
+        }
+
+        // check for a zero-matrix
+        return l_sum <= l_count * m_epsilon
+               ? new SparseDoubleMatrix1D( p_matrix.length )
+               : m_algorithm.apply( m_iteration, p_matrix, p_executor, p_cancel );
+    }
+
+    /**
+     * calculates the stationary vector with the incidence matrix, the fixpoint
+     * iteration runs without the transition matrix, other algorithms get the
+     * transition matrix of the incidence products
+     *
+     * @param p_snapshots snapshots
+     * @param p_executor executor of the solver
+     * @param p_cancel cancellation flag
+     * @return stationary vector
+     */
+    private DoubleMatrix1D incidence( @Nonnull final ISnapshot[] p_snapshots, @Nonnull final Executor p_executor, @Nonnull final BooleanSupplier p_cancel )
+    {
+        final CIncidence l_incidence = CIncidence.of( p_snapshots, m_epsilon );
+        cancellation( p_cancel );
+
+        if ( m_algorithm != EAlgorithm.FIXPOINT )
+            return this.solve( l_incidence.matrix(), p_executor, p_cancel );
+
+        return l_incidence.sum() <= 0
+               ? new SparseDoubleMatrix1D( p_snapshots.length )
+               : EAlgorithm.fixpoint( l_incidence, m_iteration, p_cancel );
+    }
+
+    @Nonnull
+    @Override
+    public IConsistency listen( @Nonnull final IConsistencyListener p_listener, @Nonnegative final double p_delta, @Nonnull final double... p_thresholds )
+    {
+        m_listeners.add( new CListener( p_listener, p_delta, p_thresholds ) );
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public IConsistency unlisten( @Nonnull final IConsistencyListener p_listener )
+    {
+        m_listeners.removeIf( i -> i.m_listener.equals( p_listener ) );
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public IConsistency clear()
+    {
+        m_statistic.clear();
+        m_data.clear();
+        m_cache = null;
+        m_transition = null;
+        m_result = EMPTYRESULT;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public IConsistency add( @Nonnull final IAgent<?>... p_agents )
+    {
+        return this.add( Arrays.stream( p_agents ) );
+    }
+
+    @Nonnull
+    @Override
+    public IConsistency add( @Nonnull final Stream<IAgent<?>> p_agents )
+    {
+        p_agents.forEach( i -> m_data.putIfAbsent( i, DEFAULTNONEXISTING ) );
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public IConsistency remove( @Nonnull final IAgent<?>... p_agents )
+    {
+        return this.remove( Arrays.stream( p_agents ) );
+    }
+
+    @Nonnull
+    @Override
+    public IConsistency remove( @Nonnull final Stream<IAgent<?>> p_agents )
+    {
+        p_agents.forEach( m_data::remove );
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public Stream<Map.Entry<IAgent<?>, Double>> consistency()
+    {
+        return m_data.entrySet().stream().map( i -> new AbstractMap.SimpleImmutableEntry<>( i.getKey(), i.getValue().getKey() ) );
+    }
+
+    @Nonnegative
+    @Override
+    public double consistency( @Nonnull final IAgent<?> p_agent )
+    {
+        return m_data.getOrDefault( p_agent, DEFAULTNONEXISTING ).getKey();
+    }
+
+    @Nonnegative
+    @Override
+    public double inconsistency( @Nonnull final IAgent<?> p_agent )
+    {
+        return m_data.getOrDefault( p_agent, DEFAULTNONEXISTING ).getValue();
+    }
+
+    @Nonnull
+    @Override
+    public Stream<Map.Entry<IAgent<?>, Double>> inconsistency()
+    {
+        return m_data.entrySet().stream().map( i -> new AbstractMap.SimpleImmutableEntry<>( i.getKey(), i.getValue().getValue() ) );
+    }
+
+    @Nonnegative
+    @Override
+    public int size()
+    {
+        return m_data.size();
+    }
+
+    @Nonnull
+    @Override
+    public IAgent<?>[] agents()
+    {
+        return m_result.getKey().clone();
+    }
+
+    @Nonnegative
+    @Override
+    public int consistency( @Nonnull final double[] p_target )
+    {
+        return copy( m_result.getValue()[0], p_target );
+    }
+
+    @Nonnegative
+    @Override
+    public int consistency( @Nonnull final DoubleBuffer p_target )
+    {
+        return copy( m_result.getValue()[0], p_target );
+    }
+
+    @Nonnegative
+    @Override
+    public int inconsistency( @Nonnull final double[] p_target )
+    {
+        return copy( m_result.getValue()[1], p_target );
+    }
+
+    @Nonnegative
+    @Override
+    public int inconsistency( @Nonnull final DoubleBuffer p_target )
+    {
+        return copy( m_result.getValue()[1], p_target );
+    }
+
+    @Nonnull
+    @Override
+    public IAgent<?>[] result( @Nonnull final double[] p_consistency, @Nonnull final double[] p_inconsistency )
+    {
+        final Map.Entry<IAgent<?>[], double[][]> l_result = m_result;
+        if ( p_consistency.length < l_result.getKey().length || p_inconsistency.length < l_result.getKey().length )
+            throw new IllegalArgumentException( "target arrays need a size of " + l_result.getKey().length );
+
+        copy( l_result.getValue()[0], p_consistency );
+        copy( l_result.getValue()[1], p_inconsistency );
+        return l_result.getKey().clone();
+    }
+
+    /**
+     * copies published values into a target array
+     *
+     * @param p_values published values
+     * @param p_target target array
+     * @return number of values
+     */
+    private static int copy( @Nonnull final double[] p_values, @Nonnull final double[] p_target )
+    {
+        if ( p_target.length < p_values.length )
+            throw new IllegalArgumentException( "target array needs a size of " + p_values.length );
+
+        System.arraycopy( p_values, 0, p_target, 0, p_values.length );
+        return p_values.length;
+    }
+
+    /**
+     * puts published values into a target buffer,
+     * the remaining size is checked before writing
+     *
+     * @param p_values published values
+     * @param p_target target buffer
+     * @return number of values
+     */
+    private static int copy( @Nonnull final double[] p_values, @Nonnull final DoubleBuffer p_target )
+    {
+        if ( p_target.remaining() < p_values.length )
+            throw new IllegalArgumentException( "target buffer needs " + p_values.length + " remaining elements" );
+
+        p_target.put( p_values );
+        return p_values.length;
+    }
+
+    @Nonnull
+    @Override
+    public Stream<Map.Entry<IAgent<?>, Double>> topconsistent( @Nonnegative final int p_count )
+    {
+        return this.top( p_count, Map.Entry::getKey );
+    }
+
+    @Nonnull
+    @Override
+    public Stream<Map.Entry<IAgent<?>, Double>> topinconsistent( @Nonnegative final int p_count )
+    {
+        return this.top( p_count, Map.Entry::getValue );
+    }
+
+    /**
+     * returns the agents with the largest values
+     * by a bounded heap over the data
+     *
+     * @param p_count number of agents
+     * @param p_value value extractor of the consistency / inconsistency entry
+     * @return entry stream in descending order
+     */
+    private Stream<Map.Entry<IAgent<?>, Double>> top( final int p_count, @Nonnull final ToDoubleFunction<Map.Entry<Double, Double>> p_value )
+    {
+        final int l_capacity = Math.min( p_count, m_data.size() );
+        if ( l_capacity < 1 )
+            return Stream.empty();
+
+        final CBoundedHeap l_heap = new CBoundedHeap( l_capacity );
+        m_data.forEach( ( i, j ) -> l_heap.push( i, p_value.applyAsDouble( j ) ) );
+        return l_heap.stream();
+    }
+
+    /**
+     * runs the filter for each agent, the agents are
+     * claimed by the executor tasks and the calling thread,
+     * so the calculation cannot block on a saturated executor,
+     * the number of executor tasks is limited by the parallelism
+     *
+     * @param p_keys agents
+     * @param p_executor executor
+     * @param p_cancel cancellation flag
+     * @return snapshot of each agent
+     * @throws InterruptedException is thrown on thread interruption
+     */
+    private ISnapshot[] filter( @Nonnull final IAgent<?>[] p_keys, @Nonnull final Executor p_executor,
+                              @Nonnull final BooleanSupplier p_cancel ) throws InterruptedException
+    {
+        final ISnapshot[] l_snapshots = new ISnapshot[p_keys.length];
+        final AtomicInteger l_index = new AtomicInteger();
+        final CountDownLatch l_finished = new CountDownLatch( p_keys.length );
+        final AtomicReference<RuntimeException> l_error = new AtomicReference<>();
+
+        final Runnable l_task = () ->
+        {
+            for ( int i = l_index.getAndIncrement(); i < p_keys.length; i = l_index.getAndIncrement() )
+            {
+                try
+                {
+                    if ( !p_cancel.getAsBoolean() )
+                        l_snapshots[i] = m_filter.snapshot( p_keys[i] );
+                }
+                catch ( final RuntimeException l_exception )
+                {
+                    l_error.compareAndSet( null, l_exception );
+                }
+                finally
+                {
+                    l_finished.countDown();
+                }
+            }
+        };
+
+        IntStream.range( 0, Math.min( parallelism( p_executor ), p_keys.length - 1 ) ).forEach( i -> p_executor.execute( l_task ) );
+        l_task.run();
+        l_finished.await();
+
+        if ( Objects.nonNull( l_error.get() ) )
+            throw l_error.get();
+
+        cancellation( p_cancel );
+        return l_snapshots;
+    }
+
+    /**
+     * returns the parallelism of an executor, the number of processors is
+     * used if the executor does not define a parallelism, the calling
+     * thread is not counted
+     *
+     * @param p_executor executor
+     * @return number of executor tasks
+     */
+    @Nonnegative
+    static int parallelism( @Nonnull final Executor p_executor )
+    {
+        if ( p_executor instanceof ForkJoinPool )
+            return ( (ForkJoinPool) p_executor ).getParallelism();
+        if ( p_executor instanceof ThreadPoolExecutor )
+            return ( (ThreadPoolExecutor) p_executor ).getMaximumPoolSize();
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * returns metric consistency
+     *
+     * @param p_first first element
+     * @param p_second secend element
+     * @return metric consistency
+     */
+    private double getMetricValue( final ISnapshot p_first, final ISnapshot p_second )
+    {
+        final double l_cutoff = m_cutoff;
+        if ( !Double.isFinite( l_cutoff ) )
+            return m_metric.apply( p_first, p_second ).doubleValue();
+
+        return Math.min(
+            l_cutoff,
+            m_metric instanceof IBoundedMetric
+            ? ( (IBoundedMetric) m_metric ).apply( p_first, p_second, l_cutoff )
+            : m_metric.apply( p_first, p_second ).doubleValue()
+        );
+    }
+
+    /**
+     * checks the cancellation flag
+     *
+     * @param p_cancel cancellation flag
+     * @throws CancellationException is thrown if the calculation is cancelled
+     */
+    private static void cancellation( @Nonnull final BooleanSupplier p_cancel )
+    {
+        if ( p_cancel.getAsBoolean() )
+            throw new CancellationException();
+    }
+
+
+    /**
+     * bounded min-heap to keep the agents with the largest values
+     */
+    private static final class CBoundedHeap
+    {
+        /**
+         * agents
+         */
+        private final IAgent<?>[] m_agents;
+        /**
+         * values
+         */
+        private final double[] m_values;
+        /**
+         * number of elements
+         */
+        private int m_size;
+
+        /**
+         * ctor
+         *
+         * @param p_capacity capacity
+         */
+        CBoundedHeap( @Nonnegative final int p_capacity )
+        {
+            m_agents = new IAgent<?>[p_capacity];
+            m_values = new double[p_capacity];
+        }
+
+        /**
+         * adds an agent, if the value is larger than the current minimum
+         *
+         * @param p_agent agent
+         * @param p_value value
+         */
+        void push( @Nonnull final IAgent<?> p_agent, final double p_value )
+        {
+            if ( m_size < m_values.length )
+            {
+                int l_index = m_size++;
+                for ( int l_parent = ( l_index - 1 ) >>> 1; l_index > 0 && m_values[l_parent] > p_value; l_parent = ( l_index - 1 ) >>> 1 )
+                {
+                    m_agents[l_index] = m_agents[l_parent];
+                    m_values[l_index] = m_values[l_parent];
+                    l_index = l_parent;
+                }
+
+                m_agents[l_index] = p_agent;
+                m_values[l_index] = p_value;
+                return;
+            }
+
+            if ( p_value > m_values[0] )
+                this.siftdown( p_agent, p_value, m_size );
+        }
+
+        /**
+         * sorts the heap descending and returns the entries
+         *
+         * @return entry stream
+         */
+        Stream<Map.Entry<IAgent<?>, Double>> stream()
+        {
+            // heap-sort moves the minimum to the end, so the arrays are ordered descending
+            for ( int l_size = m_size - 1; l_size > 0; l_size-- )
+            {
+                final IAgent<?> l_agent = m_agents[l_size];
+                final double l_value = m_values[l_size];
+
+                m_agents[l_size] = m_agents[0];
+                m_values[l_size] = m_values[0];
+                this.siftdown( l_agent, l_value, l_size );
+            }
+
+            return IntStream.range( 0, m_size ).mapToObj( i -> new AbstractMap.SimpleImmutableEntry<>( m_agents[i], m_values[i] ) );
+        }
+
+        /**
+         * replaces the root element and restores the heap order
+         *
+         * @param p_agent agent
+         * @param p_value value
+         * @param p_size heap size
+         */
+        private void siftdown( @Nonnull final IAgent<?> p_agent, final double p_value, final int p_size )
+        {
+            int l_index = 0;
+            for ( int l_child = 1; l_child < p_size; l_child = 2 * l_index + 1 )
+            {
+                if ( l_child + 1 < p_size && m_values[l_child + 1] < m_values[l_child] )
+                    l_child++;
+                if ( p_value <= m_values[l_child] )
+                    break;
+
+                m_agents[l_index] = m_agents[l_child];
+                m_values[l_index] = m_values[l_child];
+                l_index = l_child;
+            }
+
+            m_agents[l_index] = p_agent;
+            m_values[l_index] = p_value;
+        }
+
+    }
+
+
+
+    /**
+     * registered listener with the minimal change and the thresholds
+     */
+    private static final class CListener
+    {
+        /**
+         * listener
+         */
+        private final IConsistencyListener m_listener;
+        /**
+         * minimal change
+         */
+        private final double m_delta;
+        /**
+         * thresholds
+         */
+        private final double[] m_thresholds;
+
+        /**
+         * ctor
+         *
+         * @param p_listener listener
+         * @param p_delta minimal change
+         * @param p_thresholds thresholds
+         */
+        CListener( @Nonnull final IConsistencyListener p_listener, @Nonnegative final double p_delta, @Nonnull final double[] p_thresholds )
+        {
+            m_listener = p_listener;
+            m_delta = p_delta;
+            m_thresholds = p_thresholds.clone();
+        }
+
+        /**
+         * checks if a consistency is changed more than the delta or has crossed a threshold
+         *
+         * @param p_previous previous consistency
+         * @param p_current current consistency
+         * @return change flag
+         */
+        boolean changed( final double p_previous, final double p_current )
+        {
+            if ( Math.abs( p_current - p_previous ) > m_delta )
+                return true;
+
+            for ( final double l_threshold : m_thresholds )
+                if ( p_previous < l_threshold != p_current < l_threshold )
+                    return true;
+            return false;
+        }
+    }
+
+    /**
+     * metric values of a time-budgeted calculation
+     */
+    private static final class CCache
+    {
+        /**
+         * index of each agent
+         */
+        private final Map<IAgent<?>, Integer> m_index = new HashMap<>();
+        /**
+         * snapshot of each agent
+         */
+        private final ISnapshot[] m_snapshots;
+        /**
+         * metric values, the unknown values are replaced
+         * after the creation of the cache
+         */
+        private final double[][] m_values;
+        /**
+         * flags of the exact values of each row
+         */
+        private final BitSet[] m_exact;
+
+        /**
+         * ctor
+         *
+         * @param p_keys agents
+         * @param p_snapshots snapshots
+         * @param p_values metric values, unknown values are not-a-number
+         */
+        CCache( @Nonnull final IAgent<?>[] p_keys, @Nonnull final ISnapshot[] p_snapshots, @Nonnull final double[][] p_values )
+        {
+            m_snapshots = p_snapshots;
+            m_values = p_values;
+            m_exact = new BitSet[p_values.length];
+            for ( int i = 0; i < p_keys.length; i++ )
+            {
+                m_index.put( p_keys[i], i );
+                m_exact[i] = new BitSet( p_values.length );
+                for ( int j = 0; j < p_values.length; j++ )
+                    m_exact[i].set( j, !Double.isNaN( p_values[i][j] ) );
+            }
+        }
+
+        /**
+         * returns the index of an agent
+         *
+         * @param p_agent agent
+         * @return index or -1
+         */
+        int index( @Nonnull final IAgent<?> p_agent )
+        {
+            return m_index.getOrDefault( p_agent, -1 );
+        }
+
+        /**
+         * returns the index of an agent with an unchanged snapshot
+         *
+         * @param p_agent agent
+         * @param p_snapshot current snapshot
+         * @return index or -1
+         */
+        int index( @Nonnull final IAgent<?> p_agent, @Nonnull final ISnapshot p_snapshot )
+        {
+            final int l_index = this.index( p_agent );
+            return l_index < 0 || !ISnapshot.equal( m_snapshots[l_index], p_snapshot )
+                   ? -1
+                   : l_index;
+        }
+
+        /**
+         * returns the ratio of the exact values
+         *
+         * @return ratio
+         */
+        double quality()
+        {
+            return Arrays.stream( m_exact ).mapToLong( BitSet::cardinality ).sum() / (double) ( (long) m_exact.length * m_exact.length );
+        }
+    }
+
+
+
+    /**
+     * structure of the transition matrix
+     */
+    public enum EStructure
+    {
+        /**
+         * dense matrix with the pairwise metric values
+         */
+        DENSE,
+        /**
+         * sparse agent-term incidence matrix of the symmetric
+         * difference, the fixpoint iteration runs without
+         * creating the transition matrix
+         */
+        INCIDENCE,
+        /**
+         * dense matrix, which is approximated with the metric
+         * values between each agent and a set of landmark agents
+         */
+        LANDMARK
+
+    }
+
+
+
+    /**
+     * numeric algorithm structure
+     */
+    public enum EAlgorithm implements BiFunction<Integer, DoubleMatrix2D, DoubleMatrix1D>
+    {
+        /**
+         * use numeric algorithm (QR decomposition)
+         **/
+        NUMERICAL
+        {
+            @Override
+            public DoubleMatrix1D apply( final int p_iteration, @Nonnull final DoubleMatrix2D p_matrix, @Nonnull final BooleanSupplier p_cancel )
+            {
+                cancellation( p_cancel );
+                return normalize( getLargestEigenvector( p_matrix ) );
+            }
+        },
+        /**
+         * use stochastic algorithm (fixpoint iteration)
+         **/
+        FIXPOINT
+        {
+            @Override
+            public DoubleMatrix1D apply( final int p_iteration, @Nonnull final DoubleMatrix2D p_matrix, @Nonnull final BooleanSupplier p_cancel )
+            {
+                return this.apply( p_iteration, p_matrix.toArray(), Runnable::run, p_cancel );
+            }
+
+            @Override
+            DoubleMatrix1D apply( final int p_iteration, @Nonnull final double[][] p_matrix, @Nonnull final Executor p_executor,
+                                  @Nonnull final BooleanSupplier p_cancel )
+            {
+                return normalize( new DenseDoubleMatrix1D( CPowerIteration.dense( p_matrix, p_iteration, p_executor, p_cancel ) ) );
+            }
+        },
+        /**
+         * largest eigenvector with shifted gauss-seidel sweeps, which
+         * converges to the vector of the fixpoint iteration in fewer
+         * passes, the sweeps use an own tolerance and sweep limit,
+         * so the iteration value is not used
+         **/
+        GAUSSSEIDEL
+        {
+            @Override
+            public DoubleMatrix1D apply( final int p_iteration, @Nonnull final DoubleMatrix2D p_matrix, @Nonnull final BooleanSupplier p_cancel )
+            {
+                return this.apply( p_iteration, p_matrix.toArray(), Runnable::run, p_cancel );
+            }
+
+            @Override
+            DoubleMatrix1D apply( final int p_iteration, @Nonnull final double[][] p_matrix, @Nonnull final Executor p_executor,
+                                  @Nonnull final BooleanSupplier p_cancel )
+            {
+                return normalize( new DenseDoubleMatrix1D( CStationary.gaussseidel( p_matrix, p_cancel ) ) );
+            }
+        },
+        /**
+         * stationary distribution of the row-normalized matrix
+         * with a multilevel aggregation-disaggregation, the
+         * iteration value is the maximum number of iterations
+         * on the finest level
+         **/
+        AGGREGATION
+        {
+            @Override
+            public DoubleMatrix1D apply( final int p_iteration, @Nonnull final DoubleMatrix2D p_matrix, @Nonnull final BooleanSupplier p_cancel )
+            {
+                return this.apply( p_iteration, p_matrix.toArray(), Runnable::run, p_cancel );
+            }
+
+            @Override
+            DoubleMatrix1D apply( final int p_iteration, @Nonnull final double[][] p_matrix, @Nonnull final Executor p_executor,
+                                  @Nonnull final BooleanSupplier p_cancel )
+            {
+                return normalize( new DenseDoubleMatrix1D( CStationary.aggregation( CStationary.transition( p_matrix ), p_iteration, p_cancel ) ) );
+            }
+
+            @Override
+            boolean stationary()
+            {
+                return true;
+            }
+        };
+
+
+        @Override
+        public final DoubleMatrix1D apply( final Integer p_iteration, final DoubleMatrix2D p_matrix )
+        {
+            return this.apply( p_iteration, p_matrix, () -> false );
+        }
+
+        /**
+         * calculates the stationary vector
+         *
+         * @param p_iteration number of iterations
+         * @param p_matrix matrix
+         * @param p_cancel cancellation flag, which is checked between the iterations
+         * @return stationary vector
+         * @throws CancellationException is thrown if the calculation is cancelled
+         */
+        public abstract DoubleMatrix1D apply( final int p_iteration, @Nonnull final DoubleMatrix2D p_matrix, @Nonnull final BooleanSupplier p_cancel );
+
+        /**
+         * calculates the stationary vector of a row-major matrix,
+         * algorithms with an array kernel run without a matrix copy
+         *
+         * @param p_iteration number of iterations
+         * @param p_matrix row-major matrix
+         * @param p_executor executor of parallel parts
+         * @param p_cancel cancellation flag
+         * @return stationary vector
+         */
+        DoubleMatrix1D apply( final int p_iteration, @Nonnull final double[][] p_matrix, @Nonnull final Executor p_executor,
+                              @Nonnull final BooleanSupplier p_cancel )
+        {
+            return this.apply( p_iteration, new DenseDoubleMatrix2D( p_matrix ), p_cancel );
+        }
+
+        /**
+         * returns if the algorithm calculates the stationary distribution of the
+         * row-normalized matrix, otherwise it calculates the eigenvector of the matrix
+         *
+         * @return stationary flag
+         */
+        boolean stationary()
+        {
+            return false;
+        }
+
+
+        /**
+         * calculates the stationary vector of an operator with the fixpoint iteration
+         *
+         * @param p_operator operator
+         * @param p_iteration number of iterations
+         * @param p_cancel cancellation flag
+         * @return stationary vector
+         */
+        static DoubleMatrix1D fixpoint( @Nonnull final IOperator p_operator, final int p_iteration, @Nonnull final BooleanSupplier p_cancel )
+        {
+            return normalize( new DenseDoubleMatrix1D( CPowerIteration.operator( p_operator, p_iteration, p_cancel ) ) );
+        }
+
+        /**
+         * normalize eigenvector and create positiv oriantation
+         *
+         * @param p_eigenvector eigen vector
+         * @return normalized eigen vector
+         */
+        private static DoubleMatrix1D normalize( @Nonnull  final DoubleMatrix1D p_eigenvector )
+        {
+            p_eigenvector.assign( DoubleMult.div( ALGEBRA.norm1( p_eigenvector ) ) );
+            p_eigenvector.assign( DoubleFunctions.abs );
+            return p_eigenvector;
         }
 
         /**
@@ -373,7 +1605,7 @@ public final class CMarkowChainConsistency implements IConsistency
             // gets the position of the largest eigenvalue in parallel and returns the eigenvector
             final double[] l_eigenvalues = l_eigen.getRealEigenvalues().toArray();
             return l_eigen.getV().viewColumn(
-                IntStream.range( 0, l_eigenvalues.length - 1 ).parallel()
+                IntStream.range( 0, l_eigenvalues.length ).parallel()
                          .reduce( ( i, j ) -> l_eigenvalues[i] < l_eigenvalues[j] ? j : i ).orElse( 0 )
             );
         }
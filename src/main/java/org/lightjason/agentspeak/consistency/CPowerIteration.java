@@ -0,0 +1,330 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import cern.colt.matrix.tdouble.DoubleFactory1D;
+import org.lightjason.agentspeak.language.CCommon;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * power iteration kernel, which works on two buffers that are swapped on
+ * each iteration, the normalization of the previous iteration is applied
+ * as scaling inside the multiplication, so the product, the norm and the
+ * residual |Ax - &lambda;x|&sup2; = |Ax|&sup2; - (x&middot;Ax)&sup2; are
+ * calculated in one pass over the matrix, a large matrix is split into
+ * fixed row blocks once, which are calculated on the executor of the
+ * caller in each iteration
+ *
+ * @see <a href="http://en.wikipedia.org/wiki/Perron%E2%80%93Frobenius_theorem"></a>
+ */
+final class CPowerIteration
+{
+    /**
+     * kernel of the row operations
+     */
+    private static final IKernel KERNEL = IKernel.INSTANCE;
+    /**
+     * relative residual to stop the iteration
+     */
+    private static final double RESIDUAL = CCommon.FLOATINGPRECISION.doubleValue();
+    /**
+     * number of rows of a parallel block
+     */
+    private static final int BLOCKSIZE = 256;
+    /**
+     * minimal number of rows for the parallel calculation
+     */
+    private static final int PARALLELSIZE = 4 * BLOCKSIZE;
+
+    /**
+     * ctor
+     */
+    private CPowerIteration()
+    {
+    }
+
+    /**
+     * calculates the largest eigenvector of a dense matrix
+     *
+     * @param p_matrix row-major matrix
+     * @param p_iteration maximum number of iterations
+     * @param p_executor executor of the row blocks
+     * @param p_cancel cancellation flag
+     * @return largest eigenvector (not normalized)
+     */
+    @Nonnull
+    static double[] dense( @Nonnull final double[][] p_matrix, @Nonnegative final int p_iteration, @Nonnull final Executor p_executor,
+                           @Nonnull final BooleanSupplier p_cancel )
+    {
+        final CBlocks l_blocks = new CBlocks( p_matrix, p_matrix.length < PARALLELSIZE ? 1 : ( p_matrix.length + BLOCKSIZE - 1 ) / BLOCKSIZE );
+        final int l_helpers = Math.min( CMarkowChainConsistency.parallelism( p_executor ), l_blocks.m_count - 1 );
+        final double[][] l_buffer = {start( p_matrix.length ), new double[p_matrix.length]};
+
+        double l_scale = 1 / Math.sqrt( KERNEL.dot( l_buffer[0], l_buffer[0] ) );
+        for ( int i = 0; i < p_iteration; i++ )
+        {
+            if ( p_cancel.getAsBoolean() )
+                throw new CancellationException();
+
+            final double[] l_output = l_buffer[( i + 1 ) % 2];
+            l_blocks.multiply( l_buffer[i % 2], l_scale, l_output, p_executor, l_helpers );
+
+            final double l_square = sum( l_blocks.m_squares );
+            final double l_dot = sum( l_blocks.m_dots );
+            if ( l_square <= 0 )
+                return l_output;
+
+            l_scale = 1 / Math.sqrt( l_square );
+            if ( l_square - l_dot * l_dot <= RESIDUAL * RESIDUAL * l_square )
+                return l_output;
+        }
+
+        return l_buffer[p_iteration % 2];
+    }
+
+    /**
+     * calculates the largest eigenvector of an operator,
+     * the norm and residual are calculated in one pass
+     * after the multiplication
+     *
+     * @param p_operator operator
+     * @param p_iteration maximum number of iterations
+     * @param p_cancel cancellation flag
+     * @return largest eigenvector (not normalized)
+     */
+    @Nonnull
+    static double[] operator( @Nonnull final IOperator p_operator, @Nonnegative final int p_iteration, @Nonnull final BooleanSupplier p_cancel )
+    {
+        double[] l_input = start( p_operator.size() );
+        double[] l_output = new double[l_input.length];
+        KERNEL.scale( l_input, 1 / Math.sqrt( KERNEL.dot( l_input, l_input ) ) );
+
+        for ( int i = 0; i < p_iteration; i++ )
+        {
+            if ( p_cancel.getAsBoolean() )
+                throw new CancellationException();
+
+            p_operator.multiply( l_input, l_output );
+
+            final double l_square = KERNEL.dot( l_output, l_output );
+            final double l_dot = KERNEL.dot( l_output, l_input );
+            if ( l_square <= 0 )
+                return l_output;
+
+            KERNEL.scale( l_output, 1 / Math.sqrt( l_square ) );
+            if ( l_square - l_dot * l_dot <= RESIDUAL * RESIDUAL * l_square )
+                return l_output;
+
+            final double[] l_swap = l_input;
+            l_input = l_output;
+            l_output = l_swap;
+        }
+
+        return l_input;
+    }
+
+    /**
+     * fused multiplication of a row block with a scaled vector,
+     * which stores the squared norm and the dot product with
+     * the normalized input of the block
+     *
+     * @param p_matrix matrix
+     * @param p_input unnormalized input vector
+     * @param p_scale scale of the input vector
+     * @param p_output output vector
+     * @param p_from first row
+     * @param p_to last row (exclusive)
+     * @param p_squares squared norm of each block
+     * @param p_dots dot product of each block
+     * @param p_block block index
+     */
+    private static void multiply( @Nonnull final double[][] p_matrix, @Nonnull final double[] p_input, final double p_scale,
+                                  @Nonnull final double[] p_output, final int p_from, final int p_to,
+                                  @Nonnull final double[] p_squares, @Nonnull final double[] p_dots, final int p_block )
+    {
+        double l_square = 0;
+        double l_dot = 0;
+        for ( int i = p_from; i < p_to; i++ )
+        {
+            final double l_value = p_scale * KERNEL.dot( p_matrix[i], p_input );
+            p_output[i] = l_value;
+            l_square += l_value * l_value;
+            l_dot += l_value * p_input[i] * p_scale;
+        }
+
+        p_squares[p_block] = l_square;
+        p_dots[p_block] = l_dot;
+    }
+
+    /**
+     * random start vector
+     *
+     * @param p_size size
+     * @return vector
+     */
+    private static double[] start( @Nonnegative final int p_size )
+    {
+        return DoubleFactory1D.dense.random( p_size ).toArray();
+    }
+
+    /**
+     * row blocks of a matrix, the caller and the helper tasks
+     * take the blocks of an iteration by a shared counter, so
+     * the caller calculates all blocks, which are not taken by
+     * a helper, and waits for the blocks of the helpers only
+     */
+    private static final class CBlocks implements Runnable
+    {
+        /**
+         * matrix
+         */
+        private final double[][] m_matrix;
+        /**
+         * number of blocks
+         */
+        private final int m_count;
+        /**
+         * squared norm of each block
+         */
+        private final double[] m_squares;
+        /**
+         * dot product of each block
+         */
+        private final double[] m_dots;
+        /**
+         * next block of the iteration, helpers of a previous
+         * iteration get an index beyond the blocks
+         */
+        private final AtomicInteger m_next;
+        /**
+         * number of calculated blocks of the iteration
+         */
+        private final AtomicInteger m_done = new AtomicInteger();
+        /**
+         * input vector of the iteration, which is published by the counter reset
+         */
+        private double[] m_input;
+        /**
+         * output vector of the iteration, which is published by the counter reset
+         */
+        private double[] m_output;
+        /**
+         * input scale of the iteration, which is published by the counter reset
+         */
+        private double m_scale;
+
+        /**
+         * ctor
+         *
+         * @param p_matrix matrix
+         * @param p_count number of blocks
+         */
+        CBlocks( @Nonnull final double[][] p_matrix, @Nonnegative final int p_count )
+        {
+            m_matrix = p_matrix;
+            m_count = p_count;
+            m_squares = new double[p_count];
+            m_dots = new double[p_count];
+            m_next = new AtomicInteger( p_count );
+        }
+
+        /**
+         * calculates all blocks of an iteration
+         *
+         * @param p_input unnormalized input vector
+         * @param p_scale scale of the input vector
+         * @param p_output output vector
+         * @param p_executor executor of the helpers
+         * @param p_helpers number of helper tasks
+         */
+        private void multiply( @Nonnull final double[] p_input, final double p_scale, @Nonnull final double[] p_output,
+                               @Nonnull final Executor p_executor, @Nonnegative final int p_helpers )
+        {
+            m_input = p_input;
+            m_output = p_output;
+            m_scale = p_scale;
+            m_done.set( 0 );
+            m_next.set( 0 );
+
+            for ( int i = 0; i < p_helpers; i++ )
+                p_executor.execute( this );
+            this.run();
+
+            synchronized ( this )
+            {
+                try
+                {
+                    while ( m_done.get() < m_count )
+                        this.wait();
+                }
+                catch ( final InterruptedException l_exception )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException();
+                }
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            for ( int i = m_next.getAndIncrement(); i < m_count; i = m_next.getAndIncrement() )
+            {
+                CPowerIteration.multiply(
+                    m_matrix, m_input, m_scale, m_output,
+                    i * BLOCKSIZE, m_count == 1 ? m_matrix.length : Math.min( m_matrix.length, ( i + 1 ) * BLOCKSIZE ),
+                    m_squares, m_dots, i
+                );
+
+                if ( m_done.incrementAndGet() == m_count )
+                    synchronized ( this )
+                    {
+                        this.notifyAll();
+                    }
+            }
+        }
+    }
+
+    /**
+     * sum of the elements
+     *
+     * @param p_values values
+     * @return sum
+     */
+    private static double sum( @Nonnull final double[] p_values )
+    {
+        double l_value = 0;
+        for ( final double l_element : p_values )
+            l_value += l_element;
+        return l_value;
+    }
+
+}
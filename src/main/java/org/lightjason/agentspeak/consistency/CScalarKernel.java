@@ -0,0 +1,60 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import javax.annotation.Nonnull;
+
+
+/**
+ * scalar kernel, which is used as fallback
+ * if the vector kernel is not available
+ */
+final class CScalarKernel implements IKernel
+{
+    @Override
+    public double dot( @Nonnull final double[] p_first, @Nonnull final double[] p_second )
+    {
+        double l_value = 0;
+        for ( int i = 0; i < p_first.length; i++ )
+            l_value += p_first[i] * p_second[i];
+        return l_value;
+    }
+
+    @Override
+    public double norm1( @Nonnull final double[] p_values )
+    {
+        double l_value = 0;
+        for ( final double l_element : p_values )
+            l_value += Math.abs( l_element );
+        return l_value;
+    }
+
+    @Override
+    public void scale( @Nonnull final double[] p_values, final double p_scale )
+    {
+        for ( int i = 0; i < p_values.length; i++ )
+            p_values[i] *= p_scale;
+    }
+
+}
@@ -0,0 +1,402 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * scheduler of consistency calculations of multiple tenants, the
+ * calculations run on a bounded worker pool, the tenants are served
+ * round-robin, the calculation with the highest priority of all tenants
+ * runs first and the sum of the n&sup2; costs of the running calculations
+ * is limited, a calculation which exceeds the limit on its own runs if no
+ * other calculation is running, so large calculations do not starve,
+ * submissions of the same consistency run one after another, a worker
+ * slot is released if the calculation body exits and not if the future
+ * is completed, closing the scheduler cancels the futures of all queued
+ * and running calculations
+ */
+public final class CScheduler implements AutoCloseable
+{
+    /**
+     * worker pool
+     */
+    private final ExecutorService m_executor;
+    /**
+     * number of workers
+     */
+    private final int m_workers;
+    /**
+     * admission limit of the running n&sup2; costs
+     */
+    private final long m_budget;
+    /**
+     * sequence of the submitted calculations
+     */
+    private final AtomicLong m_sequence = new AtomicLong();
+    /**
+     * tenants with queued calculations
+     */
+    private final Map<String, Queue<CTask>> m_tenants = new HashMap<>();
+    /**
+     * round-robin order of the tenants
+     */
+    private final Deque<String> m_order = new ArrayDeque<>();
+    /**
+     * running calculations
+     */
+    private final Set<CTask> m_active = new HashSet<>();
+    /**
+     * consistencies of the running calculations
+     */
+    private final Set<IConsistency> m_busy = Collections.newSetFromMap( new IdentityHashMap<>() );
+    /**
+     * number of running calculations
+     */
+    private int m_running;
+    /**
+     * costs of the running calculations
+     */
+    private long m_cost;
+
+
+    /**
+     * ctor
+     *
+     * @param p_workers number of workers
+     * @param p_budget admission limit of the sum of the n&sup2; costs of the running calculations
+     */
+    public CScheduler( @Nonnegative final int p_workers, @Nonnegative final long p_budget )
+    {
+        if ( p_workers < 1 )
+            throw new IllegalArgumentException( "number of workers must be greater than zero" );
+
+        m_workers = p_workers;
+        m_budget = p_budget;
+        m_executor = Executors.newFixedThreadPool( p_workers );
+    }
+
+    /**
+     * submits a calculation with default priority
+     *
+     * @param p_tenant tenant
+     * @param p_consistency consistency
+     * @return future, which can be cancelled
+     */
+    @Nonnull
+    public CompletableFuture<IConsistency> submit( @Nonnull final String p_tenant, @Nonnull final IConsistency p_consistency )
+    {
+        return this.submit( p_tenant, 0, p_consistency );
+    }
+
+    /**
+     * submits a calculation
+     *
+     * @param p_tenant tenant
+     * @param p_priority priority, larger values run first
+     * @param p_consistency consistency
+     * @return future, which can be cancelled
+     */
+    @Nonnull
+    public CompletableFuture<IConsistency> submit( @Nonnull final String p_tenant, final int p_priority, @Nonnull final IConsistency p_consistency )
+    {
+        final long l_size = p_consistency.size();
+        final CTask l_task = new CTask( p_consistency, p_priority, m_sequence.getAndIncrement(), l_size * l_size );
+
+        synchronized ( this )
+        {
+            m_tenants.computeIfAbsent( p_tenant, i ->
+            {
+                m_order.addLast( i );
+                return new PriorityQueue<>( CTask.ORDER );
+            } ).add( l_task );
+        }
+
+        this.dispatch();
+        return l_task.m_future;
+    }
+
+    /**
+     * returns the number of queued calculations,
+     * cancelled calculations are not counted
+     *
+     * @return number of calculations
+     */
+    @Nonnegative
+    public synchronized int queued()
+    {
+        return (int) m_tenants.values().stream().flatMap( Queue::stream ).filter( i -> !i.m_future.isDone() ).count();
+    }
+
+    /**
+     * returns the number of running calculations
+     *
+     * @return number of calculations
+     */
+    @Nonnegative
+    public synchronized int running()
+    {
+        return m_running;
+    }
+
+    @Override
+    public void close()
+    {
+        final List<CTask> l_tasks;
+        synchronized ( this )
+        {
+            l_tasks = Stream.concat( m_tenants.values().stream().flatMap( Queue::stream ), m_active.stream() ).collect( Collectors.toList() );
+            m_tenants.clear();
+            m_order.clear();
+            m_active.clear();
+            m_busy.clear();
+        }
+
+        // the pool drops queued helper tasks, so the futures of running calculations are cancelled, too,
+        // cancelling is done outside the lock, because the completion handlers lock the scheduler
+        l_tasks.forEach( i -> i.m_future.cancel( false ) );
+        m_executor.shutdownNow();
+    }
+
+    /**
+     * starts calculations as long as a worker
+     * is free and the admission limit allows it
+     */
+    private void dispatch()
+    {
+        while ( true )
+        {
+            final CTask l_task;
+            synchronized ( this )
+            {
+                l_task = this.next();
+                if ( Objects.isNull( l_task ) )
+                    return;
+
+                m_running++;
+                m_cost += l_task.m_cost;
+                m_active.add( l_task );
+                m_busy.add( l_task.m_consistency );
+            }
+
+            this.run( l_task );
+        }
+    }
+
+    /**
+     * removes the next calculation from the queues, the first tenant in round-robin
+     * order with the highest priority is served and moved to the end of the order,
+     * a tenant is skipped if the consistency of its next calculation is running
+     *
+     * @return task or null if no calculation can be started
+     */
+    private CTask next()
+    {
+        if ( m_running >= m_workers )
+            return null;
+
+        String l_tenant = null;
+        CTask l_task = null;
+        for ( final Iterator<String> l_iterator = m_order.iterator(); l_iterator.hasNext(); )
+        {
+            final String l_name = l_iterator.next();
+            final Queue<CTask> l_queue = m_tenants.get( l_name );
+
+            // cancelled calculations are removed
+            while ( !l_queue.isEmpty() && l_queue.peek().m_future.isDone() )
+                l_queue.poll();
+
+            if ( l_queue.isEmpty() )
+            {
+                m_tenants.remove( l_name );
+                l_iterator.remove();
+                continue;
+            }
+
+            if ( m_busy.contains( l_queue.peek().m_consistency ) )
+                continue;
+
+            if ( Objects.isNull( l_task ) || l_queue.peek().m_priority > l_task.m_priority )
+            {
+                l_tenant = l_name;
+                l_task = l_queue.peek();
+            }
+        }
+
+        if ( Objects.isNull( l_task ) || m_running > 0 && m_cost + l_task.m_cost > m_budget )
+            return null;
+
+        final Queue<CTask> l_queue = m_tenants.get( l_tenant );
+        l_queue.poll();
+        m_order.remove( l_tenant );
+        if ( l_queue.isEmpty() )
+            m_tenants.remove( l_tenant );
+        else
+            m_order.addLast( l_tenant );
+
+        return l_task;
+    }
+
+    /**
+     * runs a calculation on the worker pool, the first task of the calculation
+     * is the calculation body, which releases the slot on exit, further tasks
+     * are helpers of the body, the cancellation of the future is forwarded to
+     * the running calculation
+     *
+     * @param p_task task
+     */
+    private void run( @Nonnull final CTask p_task )
+    {
+        final AtomicBoolean l_body = new AtomicBoolean( true );
+        final CompletableFuture<IConsistency> l_calculation;
+        try
+        {
+            l_calculation = p_task.m_consistency.async( i -> m_executor.execute( l_body.getAndSet( false ) ? () -> this.body( p_task, i ) : i ) );
+        }
+        catch ( final RejectedExecutionException l_exception )
+        {
+            this.release( p_task );
+            p_task.m_future.completeExceptionally( l_exception );
+            return;
+        }
+
+        p_task.m_future.whenComplete( ( i, j ) -> l_calculation.cancel( false ) );
+        l_calculation.whenComplete( ( i, j ) ->
+        {
+            if ( Objects.isNull( j ) )
+                p_task.m_future.complete( i );
+            else
+                p_task.m_future.completeExceptionally( j );
+        } );
+    }
+
+    /**
+     * runs the calculation body and releases the slot on exit,
+     * so a cancelled calculation holds its slot until the body
+     * recognizes the cancellation
+     *
+     * @param p_task task
+     * @param p_body calculation body
+     */
+    private void body( @Nonnull final CTask p_task, @Nonnull final Runnable p_body )
+    {
+        try
+        {
+            p_body.run();
+        }
+        finally
+        {
+            this.release( p_task );
+            this.dispatch();
+        }
+    }
+
+    /**
+     * releases the slot of a calculation
+     *
+     * @param p_task task
+     */
+    private synchronized void release( @Nonnull final CTask p_task )
+    {
+        m_running--;
+        m_cost -= p_task.m_cost;
+        m_active.remove( p_task );
+        m_busy.remove( p_task.m_consistency );
+    }
+
+
+
+    /**
+     * queued calculation
+     */
+    private static final class CTask
+    {
+        /**
+         * order of the calculations, the highest priority first and
+         * calculations with equal priority in submission order
+         */
+        private static final Comparator<CTask> ORDER = Comparator.<CTask>comparingInt( i -> i.m_priority ).reversed().thenComparingLong( i -> i.m_sequence );
+        /**
+         * consistency
+         */
+        private final IConsistency m_consistency;
+        /**
+         * priority
+         */
+        private final int m_priority;
+        /**
+         * submission sequence
+         */
+        private final long m_sequence;
+        /**
+         * n&sup2; cost
+         */
+        private final long m_cost;
+        /**
+         * result future
+         */
+        private final CompletableFuture<IConsistency> m_future = new CompletableFuture<>();
+
+        /**
+         * ctor
+         *
+         * @param p_consistency consistency
+         * @param p_priority priority
+         * @param p_sequence submission sequence
+         * @param p_cost n&sup2; cost
+         */
+        CTask( @Nonnull final IConsistency p_consistency, final int p_priority, final long p_sequence, final long p_cost )
+        {
+            m_consistency = p_consistency;
+            m_priority = p_priority;
+            m_sequence = p_sequence;
+            m_cost = p_cost;
+        }
+    }
+
+}
@@ -0,0 +1,363 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import org.lightjason.agentspeak.agent.IAgent;
+import org.lightjason.agentspeak.consistency.filter.IFilter;
+import org.lightjason.agentspeak.consistency.metric.IMetric;
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
+import org.lightjason.agentspeak.language.ITerm;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+
+/**
+ * registry of snapshots, which can be shared by multiple consistency instances,
+ * each filter and metric is attached once and the attached instance caches the
+ * snapshots of each agent within a cycle, so the beliefbase of an agent is filtered
+ * once per cycle for all consumers, the metric values of snapshot pairs are cached
+ * only if the registry is created with a pair capacity, snapshots and values of
+ * previous cycles are released on the next cycle and all cached data of a filter
+ * or metric is released if the last consumer detaches, an attached metric is not
+ * an instance of the original metric class, so it cannot be used with the incidence
+ * structure
+ */
+public final class CSnapshotRegistry
+{
+    /**
+     * current cycle
+     */
+    private final AtomicLong m_cycle = new AtomicLong();
+    /**
+     * attached filters
+     */
+    private final Map<IFilter, CFilter> m_filters = new ConcurrentHashMap<>();
+    /**
+     * attached metrics
+     */
+    private final Map<IMetric, CMetric> m_metrics = new ConcurrentHashMap<>();
+    /**
+     * maximum number of cached metric values of each metric within a cycle
+     */
+    private final int m_capacity;
+
+
+    /**
+     * ctor without caching of metric values
+     */
+    public CSnapshotRegistry()
+    {
+        this( 0 );
+    }
+
+    /**
+     * ctor
+     *
+     * @param p_capacity maximum number of cached metric values of each metric within a cycle,
+     * zero disables the cache, values beyond the capacity are calculated without caching
+     */
+    public CSnapshotRegistry( @Nonnegative final int p_capacity )
+    {
+        if ( p_capacity < 0 )
+            throw new IllegalArgumentException( "capacity must not be negative" );
+
+        m_capacity = p_capacity;
+    }
+
+
+    /**
+     * attaches a filter
+     *
+     * @param p_filter filter
+     * @return filter, which caches the snapshots
+     */
+    @Nonnull
+    public IFilter attach( @Nonnull final IFilter p_filter )
+    {
+        return m_filters.compute( p_filter, ( i, j ) -> Objects.isNull( j ) ? new CFilter( i ) : j.reference() );
+    }
+
+    /**
+     * attaches a metric
+     *
+     * @param p_metric metric
+     * @return metric, which caches the values
+     */
+    @Nonnull
+    public IMetric attach( @Nonnull final IMetric p_metric )
+    {
+        return m_metrics.compute( p_metric, ( i, j ) -> Objects.isNull( j ) ? new CMetric( i, m_capacity ) : j.reference() );
+    }
+
+    /**
+     * detaches a filter
+     *
+     * @param p_filter filter, which was attached, or the filter returned by the attach call
+     * @return self reference
+     */
+    @Nonnull
+    public CSnapshotRegistry detach( @Nonnull final IFilter p_filter )
+    {
+        final IFilter l_filter = p_filter instanceof CFilter && m_filters.get( ( (CFilter) p_filter ).m_filter ) == p_filter
+                                 ? ( (CFilter) p_filter ).m_filter
+                                 : p_filter;
+        m_filters.computeIfPresent( l_filter, ( i, j ) -> j.release() ? null : j );
+        return this;
+    }
+
+    /**
+     * detaches a metric
+     *
+     * @param p_metric metric, which was attached, or the metric returned by the attach call
+     * @return self reference
+     */
+    @Nonnull
+    public CSnapshotRegistry detach( @Nonnull final IMetric p_metric )
+    {
+        final IMetric l_metric = p_metric instanceof CMetric && m_metrics.get( ( (CMetric) p_metric ).m_metric ) == p_metric
+                                 ? ( (CMetric) p_metric ).m_metric
+                                 : p_metric;
+        m_metrics.computeIfPresent( l_metric, ( i, j ) -> j.release() ? null : j );
+        return this;
+    }
+
+    /**
+     * starts a new cycle and releases
+     * the snapshots of the previous cycle
+     *
+     * @return self reference
+     */
+    @Nonnull
+    public CSnapshotRegistry cycle()
+    {
+        final long l_cycle = m_cycle.incrementAndGet();
+        m_filters.values().forEach( i -> i.m_snapshots.values().removeIf( j -> j.getKey() < l_cycle ) );
+        m_metrics.values().forEach( i -> i.m_values.clear() );
+        return this;
+    }
+
+    /**
+     * releases the snapshots of agents
+     *
+     * @param p_agents agents
+     * @return self reference
+     */
+    @Nonnull
+    public CSnapshotRegistry release( @Nonnull final IAgent<?>... p_agents )
+    {
+        m_filters.values().forEach( i -> Arrays.stream( p_agents ).forEach( i.m_snapshots::remove ) );
+        return this;
+    }
+
+    /**
+     * returns the number of cached snapshots
+     *
+     * @return number of snapshots
+     */
+    @Nonnegative
+    public int size()
+    {
+        return m_filters.values().stream().mapToInt( i -> i.m_snapshots.size() ).sum();
+    }
+
+    /**
+     * returns the number of cached metric values
+     *
+     * @return number of metric values
+     */
+    @Nonnegative
+    public int pairs()
+    {
+        return m_metrics.values().stream().mapToInt( i -> i.m_values.size() ).sum();
+    }
+
+
+
+    /**
+     * attached filter
+     */
+    private final class CFilter implements IFilter
+    {
+        /**
+         * original filter
+         */
+        private final IFilter m_filter;
+        /**
+         * snapshots with their cycle
+         */
+        private final Map<IAgent<?>, Map.Entry<Long, ISnapshot>> m_snapshots = new ConcurrentHashMap<>();
+        /**
+         * number of consumers, which is changed inside the map update only
+         */
+        private int m_references = 1;
+
+        /**
+         * ctor
+         *
+         * @param p_filter original filter
+         */
+        CFilter( @Nonnull final IFilter p_filter )
+        {
+            m_filter = p_filter;
+        }
+
+        @Override
+        public Stream<? extends ITerm> apply( @Nonnull final IAgent<?> p_agent )
+        {
+            return this.snapshot( p_agent ).stream();
+        }
+
+        @Nonnull
+        @Override
+        public ISnapshot snapshot( @Nonnull final IAgent<?> p_agent )
+        {
+            // snapshot is created inside the map update, so concurrent consumers wait for the same snapshot
+            final long l_cycle = m_cycle.get();
+            return m_snapshots.compute(
+                p_agent,
+                ( i, j ) -> Objects.nonNull( j ) && j.getKey() == l_cycle ? j : new AbstractMap.SimpleImmutableEntry<>( l_cycle, m_filter.snapshot( i ) )
+            ).getValue();
+        }
+
+        /**
+         * adds a reference
+         *
+         * @return self reference
+         */
+        private CFilter reference()
+        {
+            m_references++;
+            return this;
+        }
+
+        /**
+         * removes a reference
+         *
+         * @return flag that no reference exists
+         */
+        private boolean release()
+        {
+            return --m_references <= 0;
+        }
+    }
+
+
+    /**
+     * attached metric
+     */
+    private static final class CMetric implements IMetric
+    {
+        /**
+         * original metric
+         */
+        private final IMetric m_metric;
+        /**
+         * metric values of the snapshot pairs
+         */
+        private final Map<Map.Entry<ISnapshot, ISnapshot>, Number> m_values = new ConcurrentHashMap<>();
+        /**
+         * maximum number of cached metric values
+         */
+        private final int m_capacity;
+        /**
+         * number of consumers, which is changed inside the map update only
+         */
+        private int m_references = 1;
+
+        /**
+         * ctor
+         *
+         * @param p_metric original metric
+         * @param p_capacity maximum number of cached metric values
+         */
+        CMetric( @Nonnull final IMetric p_metric, @Nonnegative final int p_capacity )
+        {
+            m_metric = p_metric;
+            m_capacity = p_capacity;
+        }
+
+        @Override
+        public Number apply( @Nonnull final Stream<? extends ITerm> p_first, @Nonnull final Stream<? extends ITerm> p_second )
+        {
+            return m_metric.apply( p_first, p_second );
+        }
+
+        @Override
+        public Number apply( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second )
+        {
+            if ( m_capacity == 0 )
+                return m_metric.apply( p_first, p_second );
+
+            // snapshots are equal by identity, the pair is ordered, because a metric can be asymmetric,
+            // the capacity is checked without lock, so concurrent calls can exceed it by the number of threads
+            final Map.Entry<ISnapshot, ISnapshot> l_pair = new AbstractMap.SimpleImmutableEntry<>( p_first, p_second );
+            if ( m_values.size() < m_capacity )
+                return m_values.computeIfAbsent( l_pair, i -> m_metric.apply( i.getKey(), i.getValue() ) );
+
+            final Number l_value = m_values.get( l_pair );
+            return Objects.isNull( l_value ) ? m_metric.apply( p_first, p_second ) : l_value;
+        }
+
+        @Override
+        public void row( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot[] p_second, @Nonnegative final int p_from,
+                         @Nonnegative final int p_to, @Nonnull final double[] p_result )
+        {
+            if ( m_capacity == 0 )
+                m_metric.row( p_first, p_second, p_from, p_to, p_result );
+            else
+                for ( int k = p_from; k < p_to; k++ )
+                    p_result[k] = this.apply( p_first, p_second[k] ).doubleValue();
+        }
+
+        /**
+         * adds a reference
+         *
+         * @return self reference
+         */
+        private CMetric reference()
+        {
+            m_references++;
+            return this;
+        }
+
+        /**
+         * removes a reference
+         *
+         * @return flag that no reference exists
+         */
+        private boolean release()
+        {
+            return --m_references <= 0;
+        }
+    }
+
+}
@@ -0,0 +1,349 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import org.lightjason.agentspeak.language.CCommon;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * solver of the stationary distribution &pi;P = &pi; of a markov chain,
+ * the transition matrix P is created by the row normalization of the
+ * input matrix and it is stored transposed, so that a column of P is
+ * a continuous array, and the gauss-seidel solver of the largest
+ * eigenvector Mv = &lambda;v of a non-negative matrix, which is the
+ * stationary vector of the power iteration
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Gauss%E2%80%93Seidel_method"></a>
+ * @see <a href="https://doi.org/10.1145/1455.1457">Koury, McAllister, Stewart: Iterative Methods for Computing Stationary Distributions of Nearly Completely Decomposable Markov Chains</a>
+ */
+final class CStationary
+{
+    /**
+     * kernel of the row operations
+     */
+    private static final IKernel KERNEL = IKernel.INSTANCE;
+    /**
+     * residual to stop the iteration
+     */
+    private static final double RESIDUAL = CCommon.FLOATINGPRECISION.doubleValue();
+    /**
+     * maximum size of the chain, which is solved without aggregation
+     */
+    private static final int COARSESIZE = 32;
+    /**
+     * maximum number of sweeps on the coarsest chain
+     */
+    private static final int COARSESWEEPS = 64;
+    /**
+     * number of aggregation-disaggregation iterations on the coarse levels
+     */
+    private static final int COARSEITERATION = 2;
+    /**
+     * number of smoothing sweeps after the disaggregation
+     */
+    private static final int SMOOTHING = 2;
+    /**
+     * relative 1-norm change of the eigenvector to stop the gauss-seidel sweeps
+     */
+    private static final double TOLERANCE = 1e-12;
+    /**
+     * maximum number of gauss-seidel sweeps of the eigenvector
+     */
+    private static final int SWEEPS = 500;
+
+    /**
+     * ctor
+     */
+    private CStationary()
+    {
+    }
+
+    /**
+     * creates the transposed transition matrix, rows
+     * without any weight get a self-loop
+     *
+     * @param p_matrix non-negative row-major matrix
+     * @return transposed row-stochastic matrix
+     */
+    @Nonnull
+    static double[][] transition( @Nonnull final double[][] p_matrix )
+    {
+        final double[][] l_transition = new double[p_matrix.length][p_matrix.length];
+        for ( int i = 0; i < p_matrix.length; i++ )
+        {
+            final double l_norm = KERNEL.norm1( p_matrix[i] );
+            if ( l_norm <= 0 )
+            {
+                l_transition[i][i] = 1;
+                continue;
+            }
+
+            for ( int j = 0; j < p_matrix.length; j++ )
+                l_transition[j][i] = Math.abs( p_matrix[i][j] ) / l_norm;
+        }
+
+        return l_transition;
+    }
+
+    /**
+     * calculates the largest eigenvector of a non-negative matrix with in-place
+     * gauss-seidel sweeps on ( &lambda;I - M ) v = 0, so v_i = &Sigma;_{j &ne; i} M_ij v_j / ( &lambda; - M_ii ),
+     * the eigenvalue is estimated after each sweep by the column sums c with
+     * &lambda; = c v / &Sigma; v, which is exact for the eigenvector, the sweeps
+     * stop if the relative 1-norm of the change is below the tolerance
+     *
+     * @param p_matrix non-negative row-major matrix
+     * @param p_cancel cancellation flag
+     * @return largest eigenvector with 1-norm one
+     */
+    @Nonnull
+    static double[] gaussseidel( @Nonnull final double[][] p_matrix, @Nonnull final BooleanSupplier p_cancel )
+    {
+        final double[] l_column = new double[p_matrix.length];
+        for ( final double[] l_row : p_matrix )
+            for ( int j = 0; j < l_row.length; j++ )
+                l_column[j] += l_row[j];
+
+        final double[] l_vector = new double[p_matrix.length];
+        Arrays.fill( l_vector, 1.0 / l_vector.length );
+        double l_eigenvalue = KERNEL.dot( l_column, l_vector );
+
+        for ( int n = 0; n < SWEEPS; n++ )
+        {
+            if ( p_cancel.getAsBoolean() )
+                throw new CancellationException();
+
+            double l_change = 0;
+            double l_sum = 0;
+            for ( int i = 0; i < l_vector.length; i++ )
+            {
+                final double l_shift = l_eigenvalue - p_matrix[i][i];
+                if ( l_shift > 0 )
+                {
+                    final double l_value = ( KERNEL.dot( p_matrix[i], l_vector ) - p_matrix[i][i] * l_vector[i] ) / l_shift;
+                    l_change += Math.abs( l_value - l_vector[i] );
+                    l_vector[i] = l_value;
+                }
+                l_sum += l_vector[i];
+            }
+
+            if ( l_sum <= 0 )
+                break;
+
+            KERNEL.scale( l_vector, 1 / l_sum );
+            l_eigenvalue = KERNEL.dot( l_column, l_vector );
+            if ( l_change <= TOLERANCE * l_sum )
+                break;
+        }
+
+        return l_vector;
+    }
+
+    /**
+     * calculates the stationary distribution with a multilevel iterative
+     * aggregation-disaggregation, strongly coupled states are paired to aggregates,
+     * the coarse chain of the aggregates is solved recursively and the disaggregated
+     * distribution is refined with gauss-seidel smoothing sweeps
+     *
+     * @param p_transition transposed transition matrix
+     * @param p_iteration maximum number of aggregation-disaggregation iterations
+     * @param p_cancel cancellation flag
+     * @return stationary distribution
+     */
+    @Nonnull
+    static double[] aggregation( @Nonnull final double[][] p_transition, @Nonnegative final int p_iteration, @Nonnull final BooleanSupplier p_cancel )
+    {
+        final double[] l_distribution = new double[p_transition.length];
+        Arrays.fill( l_distribution, 1.0 / l_distribution.length );
+
+        multilevel( p_transition, l_distribution, p_iteration, p_cancel );
+        return l_distribution;
+    }
+
+    /**
+     * runs the aggregation-disaggregation on one level
+     *
+     * @param p_transition transposed transition matrix
+     * @param p_distribution start distribution, which is updated in-place
+     * @param p_iteration maximum number of iterations
+     * @param p_cancel cancellation flag
+     */
+    private static void multilevel( @Nonnull final double[][] p_transition, @Nonnull final double[] p_distribution,
+                                    @Nonnegative final int p_iteration, @Nonnull final BooleanSupplier p_cancel )
+    {
+        final int[] l_aggregate = new int[p_transition.length];
+        final int l_size = p_transition.length <= COARSESIZE ? p_transition.length : aggregate( p_transition, l_aggregate );
+
+        // coarsest level or no coupled states, so the chain is solved directly
+        if ( l_size == p_transition.length )
+        {
+            for ( int i = 0; i < COARSESWEEPS; i++ )
+                if ( sweep( p_transition, p_distribution, p_cancel ) <= RESIDUAL )
+                    return;
+            return;
+        }
+
+        final int[] l_count = new int[l_size];
+        for ( final int l_index : l_aggregate )
+            l_count[l_index]++;
+
+        final double[] l_weight = new double[l_size];
+        final double[] l_share = new double[p_transition.length];
+        for ( int n = 0; n < p_iteration; n++ )
+        {
+            if ( p_cancel.getAsBoolean() )
+                throw new CancellationException();
+
+            // aggregation, the share of a state within the aggregate weights the coarse transitions
+            Arrays.fill( l_weight, 0 );
+            for ( int i = 0; i < p_distribution.length; i++ )
+                l_weight[l_aggregate[i]] += p_distribution[i];
+            for ( int i = 0; i < p_distribution.length; i++ )
+                l_share[i] = l_weight[l_aggregate[i]] > 0
+                             ? p_distribution[i] / l_weight[l_aggregate[i]]
+                             : 1.0 / l_count[l_aggregate[i]];
+
+            final double[] l_coarse = l_weight.clone();
+            multilevel( coarse( p_transition, l_aggregate, l_share, l_size ), l_coarse, COARSEITERATION, p_cancel );
+
+            // disaggregation and smoothing
+            for ( int i = 0; i < p_distribution.length; i++ )
+                p_distribution[i] = l_coarse[l_aggregate[i]] * l_share[i];
+
+            double l_change = 0;
+            for ( int i = 0; i < SMOOTHING; i++ )
+                l_change = sweep( p_transition, p_distribution, p_cancel );
+
+            if ( l_change <= RESIDUAL )
+                return;
+        }
+    }
+
+    /**
+     * pairs each state with the unassigned state of the strongest
+     * coupling P_ij + P_ji, states without coupling are singletons
+     *
+     * @param p_transition transposed transition matrix
+     * @param p_aggregate aggregate index of each state
+     * @return number of aggregates
+     */
+    private static int aggregate( @Nonnull final double[][] p_transition, @Nonnull final int[] p_aggregate )
+    {
+        Arrays.fill( p_aggregate, -1 );
+
+        int l_size = 0;
+        for ( int i = 0; i < p_transition.length; i++ )
+        {
+            if ( p_aggregate[i] >= 0 )
+                continue;
+
+            int l_pair = -1;
+            double l_coupling = 0;
+            for ( int j = i + 1; j < p_transition.length; j++ )
+                if ( p_aggregate[j] < 0 && p_transition[j][i] + p_transition[i][j] > l_coupling )
+                {
+                    l_pair = j;
+                    l_coupling = p_transition[j][i] + p_transition[i][j];
+                }
+
+            p_aggregate[i] = l_size;
+            if ( l_pair >= 0 )
+                p_aggregate[l_pair] = l_size;
+            l_size++;
+        }
+
+        return l_size;
+    }
+
+    /**
+     * creates the transposed transition matrix of the aggregates,
+     * C_IJ = &Sigma;_{i &isin; I} share_i &Sigma;_{j &isin; J} P_ij
+     *
+     * @param p_transition transposed transition matrix
+     * @param p_aggregate aggregate index of each state
+     * @param p_share share of each state within the aggregate
+     * @param p_size number of aggregates
+     * @return transposed row-stochastic matrix of the aggregates
+     */
+    private static double[][] coarse( @Nonnull final double[][] p_transition, @Nonnull final int[] p_aggregate,
+                                      @Nonnull final double[] p_share, @Nonnegative final int p_size )
+    {
+        final double[][] l_coarse = new double[p_size][p_size];
+        for ( int j = 0; j < p_transition.length; j++ )
+        {
+            final double[] l_column = p_transition[j];
+            final double[] l_target = l_coarse[p_aggregate[j]];
+            for ( int i = 0; i < l_column.length; i++ )
+                l_target[p_aggregate[i]] += l_column[i] * p_share[i];
+        }
+
+        return l_coarse;
+    }
+
+    /**
+     * runs a gauss-seidel sweep and normalizes the distribution
+     *
+     * @param p_transition transposed transition matrix
+     * @param p_distribution distribution, which is updated in-place
+     * @param p_cancel cancellation flag
+     * @return 1-norm of the change
+     */
+    static double sweep( @Nonnull final double[][] p_transition, @Nonnull final double[] p_distribution, @Nonnull final BooleanSupplier p_cancel )
+    {
+        if ( p_cancel.getAsBoolean() )
+            throw new CancellationException();
+
+        double l_change = 0;
+        double l_sum = 0;
+        for ( int j = 0; j < p_distribution.length; j++ )
+        {
+            final double[] l_column = p_transition[j];
+            final double l_stay = 1 - l_column[j];
+            if ( l_stay <= 0 )
+            {
+                l_sum += p_distribution[j];
+                continue;
+            }
+
+            final double l_value = ( KERNEL.dot( l_column, p_distribution ) - l_column[j] * p_distribution[j] ) / l_stay;
+
+            l_change += Math.abs( l_value - p_distribution[j] );
+            l_sum += l_value;
+            p_distribution[j] = l_value;
+        }
+
+        if ( l_sum > 0 )
+            for ( int j = 0; j < p_distribution.length; j++ )
+                p_distribution[j] /= l_sum;
+
+        return l_change;
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import org.lightjason.agentspeak.agent.IAgent;
+import org.lightjason.agentspeak.consistency.filter.IFilter;
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
+import org.lightjason.agentspeak.language.ITerm;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+
+/**
+ * recorder of the filter output of a consistency, the recorded snapshots are
+ * written with a term dictionary, so each distinct term string is stored once
+ * and each agent is stored as a list of term indices, the file can be replayed
+ * with the workload replay
+ *
+ * @see CWorkloadReplay
+ */
+public final class CWorkloadRecorder
+{
+    /**
+     * magic number
+     */
+    static final int MAGIC = 0x4C4A5752;
+    /**
+     * format version
+     */
+    static final int VERSION = 1;
+    /**
+     * recorded snapshots
+     */
+    private final Map<IAgent<?>, ISnapshot> m_snapshots = new ConcurrentHashMap<>();
+
+
+    /**
+     * creates a recording filter
+     *
+     * @param p_filter filter
+     * @return filter, which records each snapshot
+     */
+    @Nonnull
+    public IFilter filter( @Nonnull final IFilter p_filter )
+    {
+        return new IFilter()
+        {
+            @Override
+            public Stream<? extends ITerm> apply( @Nonnull final IAgent<?> p_agent )
+            {
+                return this.snapshot( p_agent ).stream();
+            }
+
+            @Nonnull
+            @Override
+            public ISnapshot snapshot( @Nonnull final IAgent<?> p_agent )
+            {
+                final ISnapshot l_snapshot = p_filter.snapshot( p_agent );
+                m_snapshots.put( p_agent, l_snapshot );
+                return l_snapshot;
+            }
+        };
+    }
+
+    /**
+     * returns the number of recorded agents
+     *
+     * @return number of agents
+     */
+    @Nonnegative
+    public int size()
+    {
+        return m_snapshots.size();
+    }
+
+    /**
+     * removes all recorded snapshots
+     *
+     * @return self reference
+     */
+    @Nonnull
+    public CWorkloadRecorder clear()
+    {
+        m_snapshots.clear();
+        return this;
+    }
+
+    /**
+     * writes the recorded snapshots
+     *
+     * @param p_path file
+     * @return self reference
+     * @throws IOException is thrown on io error
+     */
+    @Nonnull
+    public CWorkloadRecorder write( @Nonnull final Path p_path ) throws IOException
+    {
+        final ISnapshot[] l_snapshots = m_snapshots.values().toArray( ISnapshot[]::new );
+        final Map<String, Integer> l_dictionary = new HashMap<>();
+        final int[][] l_agents = new int[l_snapshots.length][];
+        for ( int i = 0; i < l_snapshots.length; i++ )
+            l_agents[i] = l_snapshots[i].stream()
+                                        .map( ITerm::toString )
+                                        .mapToInt( j -> l_dictionary.computeIfAbsent( j, k -> l_dictionary.size() ) )
+                                        .toArray();
+
+        final String[] l_terms = new String[l_dictionary.size()];
+        l_dictionary.forEach( ( i, j ) -> l_terms[j] = i );
+
+        try ( final DataOutputStream l_output = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( p_path ) ) ) )
+        {
+            l_output.writeInt( MAGIC );
+            l_output.writeInt( VERSION );
+
+            l_output.writeInt( l_terms.length );
+            for ( final String l_term : l_terms )
+            {
+                final byte[] l_bytes = l_term.getBytes( StandardCharsets.UTF_8 );
+                l_output.writeInt( l_bytes.length );
+                l_output.write( l_bytes );
+            }
+
+            l_output.writeInt( l_agents.length );
+            for ( final int[] l_agent : l_agents )
+            {
+                l_output.writeInt( l_agent.length );
+                for ( final int l_term : l_agent )
+                    l_output.writeInt( l_term );
+            }
+        }
+
+        return this;
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import cern.colt.matrix.tdouble.DoubleMatrix1D;
+import org.lightjason.agentspeak.consistency.snapshot.CSnapshot;
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
+import org.lightjason.agentspeak.language.CRawTerm;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+
+/**
+ * replay of a recorded workload, the terms are replayed as raw terms of their
+ * string representation, so metrics which use the term equality or the term
+ * strings calculate the same values as on the recorded agents, the matrix and
+ * the solver are the methods of the consistency, so the replay runs the same
+ * code path and can be called from a benchmark framework
+ *
+ * @see CWorkloadRecorder
+ */
+public final class CWorkloadReplay
+{
+    /**
+     * replayed snapshots
+     */
+    private final ISnapshot[] m_snapshots;
+
+    /**
+     * ctor
+     *
+     * @param p_snapshots snapshots
+     */
+    private CWorkloadReplay( @Nonnull final ISnapshot[] p_snapshots )
+    {
+        m_snapshots = p_snapshots;
+    }
+
+    /**
+     * reads a recorded workload
+     *
+     * @param p_path file
+     * @return replay
+     * @throws IOException is thrown on io error
+     */
+    @Nonnull
+    public static CWorkloadReplay of( @Nonnull final Path p_path ) throws IOException
+    {
+        try ( final DataInputStream l_input = new DataInputStream( new BufferedInputStream( Files.newInputStream( p_path ) ) ) )
+        {
+            if ( l_input.readInt() != CWorkloadRecorder.MAGIC )
+                throw new IllegalArgumentException( "file is not a recorded workload" );
+            if ( l_input.readInt() != CWorkloadRecorder.VERSION )
+                throw new IllegalArgumentException( "version of the recorded workload is not supported" );
+
+            final CRawTerm<?>[] l_terms = new CRawTerm<?>[l_input.readInt()];
+            for ( int i = 0; i < l_terms.length; i++ )
+            {
+                final byte[] l_bytes = new byte[l_input.readInt()];
+                l_input.readFully( l_bytes );
+                l_terms[i] = CRawTerm.of( new String( l_bytes, StandardCharsets.UTF_8 ) );
+            }
+
+            final ISnapshot[] l_snapshots = new ISnapshot[l_input.readInt()];
+            for ( int i = 0; i < l_snapshots.length; i++ )
+            {
+                final CRawTerm<?>[] l_agent = new CRawTerm<?>[l_input.readInt()];
+                for ( int j = 0; j < l_agent.length; j++ )
+                    l_agent[j] = l_terms[l_input.readInt()];
+                l_snapshots[i] = CSnapshot.of( Arrays.stream( l_agent ) );
+            }
+
+            return new CWorkloadReplay( l_snapshots );
+        }
+    }
+
+    /**
+     * returns the number of agents
+     *
+     * @return number of agents
+     */
+    @Nonnegative
+    public int size()
+    {
+        return m_snapshots.length;
+    }
+
+    /**
+     * returns the snapshots
+     *
+     * @return snapshot stream
+     */
+    @Nonnull
+    public Stream<ISnapshot> snapshots()
+    {
+        return Arrays.stream( m_snapshots );
+    }
+
+    /**
+     * calculates the metric matrix of all agents
+     *
+     * @param p_consistency consistency with the metric configuration
+     * @return row-major matrix
+     */
+    @Nonnull
+    public double[][] matrix( @Nonnull final CMarkowChainConsistency p_consistency )
+    {
+        return p_consistency.matrix( m_snapshots, () -> false );
+    }
+
+    /**
+     * calculates the stationary vector of all agents
+     *
+     * @param p_consistency consistency with the metric and algorithm configuration
+     * @return stationary vector
+     */
+    @Nonnull
+    public DoubleMatrix1D solve( @Nonnull final CMarkowChainConsistency p_consistency )
+    {
+        return p_consistency.solve( this.matrix( p_consistency ), () -> false );
+    }
+
+    /**
+     * replays the workload with the matrix and the solver of a consistency
+     * and measures the duration of both, the caller reports the durations
+     *
+     * @param p_consistency consistency with the metric and algorithm configuration
+     * @return duration of the matrix and of the solver in nanoseconds
+     */
+    @Nonnull
+    public long[] replay( @Nonnull final CMarkowChainConsistency p_consistency )
+    {
+        final long l_start = System.nanoTime();
+        final double[][] l_matrix = this.matrix( p_consistency );
+        final long l_solver = System.nanoTime();
+        p_consistency.solve( l_matrix, () -> false );
+        return new long[]{l_solver - l_start, System.nanoTime() - l_solver};
+    }
+
+}
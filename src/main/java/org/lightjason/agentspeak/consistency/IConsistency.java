@@ -28,13 +28,19 @@ import org.lightjason.agentspeak.agent.IAgent;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import java.nio.DoubleBuffer;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 
 /**
- * consistency interface
+ * consistency interface, the default methods are built on the
+ * stream accessors and the synchronous calculation, so they do not
+ * read a single published result and cannot cancel a running calculation
  */
 public interface IConsistency extends Callable<IConsistency>
 {
@@ -73,6 +79,133 @@ public interface IConsistency extends Callable<IConsistency>
     @Nonnull
     Stream<Map.Entry<IAgent<?>, Double>> inconsistency();
 
+    /**
+     * returns the number of added agents
+     *
+     * @return number of agents
+     */
+    @Nonnegative
+    default int size()
+    {
+        return (int) this.consistency().count();
+    }
+
+    /**
+     * agents of the last published result in the
+     * index order of the bulk accessors
+     *
+     * @return agent array
+     */
+    @Nonnull
+    default IAgent<?>[] agents()
+    {
+        return this.consistency().map( Map.Entry::getKey ).toArray( IAgent<?>[]::new );
+    }
+
+    /**
+     * copies the consistency values of the last published
+     * result in the index order of the agent array
+     *
+     * @param p_target target array, which needs the size of the agent array
+     * @return number of values
+     * @throws IllegalArgumentException if the array is shorter than the values
+     */
+    @Nonnegative
+    default int consistency( @Nonnull final double[] p_target )
+    {
+        return IConsistency.copy( this.consistency().mapToDouble( Map.Entry::getValue ).toArray(), DoubleBuffer.wrap( p_target ) );
+    }
+
+    /**
+     * puts the consistency values of the last published result in the
+     * index order of the agent array at the position of the buffer
+     *
+     * @param p_target target buffer, which needs the size of the agent array as remaining
+     * @return number of values
+     * @throws IllegalArgumentException if the buffer has less remaining elements than values
+     */
+    @Nonnegative
+    default int consistency( @Nonnull final DoubleBuffer p_target )
+    {
+        return IConsistency.copy( this.consistency().mapToDouble( Map.Entry::getValue ).toArray(), p_target );
+    }
+
+    /**
+     * copies the inconsistency values of the last published
+     * result in the index order of the agent array
+     *
+     * @param p_target target array, which needs the size of the agent array
+     * @return number of values
+     * @throws IllegalArgumentException if the array is shorter than the values
+     */
+    @Nonnegative
+    default int inconsistency( @Nonnull final double[] p_target )
+    {
+        return IConsistency.copy( this.inconsistency().mapToDouble( Map.Entry::getValue ).toArray(), DoubleBuffer.wrap( p_target ) );
+    }
+
+    /**
+     * puts the inconsistency values of the last published result in the
+     * index order of the agent array at the position of the buffer
+     *
+     * @param p_target target buffer, which needs the size of the agent array as remaining
+     * @return number of values
+     * @throws IllegalArgumentException if the buffer has less remaining elements than values
+     */
+    @Nonnegative
+    default int inconsistency( @Nonnull final DoubleBuffer p_target )
+    {
+        return IConsistency.copy( this.inconsistency().mapToDouble( Map.Entry::getValue ).toArray(), p_target );
+    }
+
+    /**
+     * copies consistency and inconsistency values of the last
+     * published result and returns the matching agents, all
+     * values are read from the same result
+     *
+     * @param p_consistency target array of the consistency values, which needs the size of the result
+     * @param p_inconsistency target array of the inconsistency values, which needs the size of the result
+     * @return agent array in the index order of the values
+     */
+    @Nonnull
+    default IAgent<?>[] result( @Nonnull final double[] p_consistency, @Nonnull final double[] p_inconsistency )
+    {
+        final IAgent<?>[] l_agents = this.agents();
+        if ( p_consistency.length < l_agents.length || p_inconsistency.length < l_agents.length )
+            throw new IllegalArgumentException( "target arrays need a size of " + l_agents.length );
+
+        for ( int i = 0; i < l_agents.length; i++ )
+        {
+            p_consistency[i] = this.consistency( l_agents[i] );
+            p_inconsistency[i] = this.inconsistency( l_agents[i] );
+        }
+        return l_agents;
+    }
+
+    /**
+     * returns the agents with the largest consistency
+     *
+     * @param p_count number of agents
+     * @return entry with agent and consistency in descending order
+     */
+    @Nonnull
+    default Stream<Map.Entry<IAgent<?>, Double>> topconsistent( @Nonnegative final int p_count )
+    {
+        return this.consistency().sorted( Map.Entry.<IAgent<?>, Double>comparingByValue().reversed() ).limit( p_count );
+    }
+
+    /**
+     * returns the agents with the largest inconsistency
+     *
+     * @param p_count number of agents
+     * @return entry with agent and inconsistency in descending order
+     */
+    @Nonnull
+    default Stream<Map.Entry<IAgent<?>, Double>> topinconsistent( @Nonnegative final int p_count )
+    {
+        return this.inconsistency().sorted( Map.Entry.<IAgent<?>, Double>comparingByValue().reversed() ).limit( p_count );
+    }
+
     /**
      * returns statistic data of the consistency values
      *
@@ -81,6 +214,29 @@ public interface IConsistency extends Callable<IConsistency>
     @Nonnull
     DescriptiveStatistics statistic();
 
+    /**
+     * runs the calculation asynchronously, the future
+     * can be cancelled during the calculation
+     *
+     * @param p_executor executor of the calculation and the agent filtering
+     * @return future with self reference
+     */
+    @Nonnull
+    default CompletableFuture<IConsistency> async( @Nonnull final Executor p_executor )
+    {
+        return CompletableFuture.supplyAsync( () ->
+        {
+            try
+            {
+                return this.call();
+            }
+            catch ( final Exception l_exception )
+            {
+                throw new CompletionException( l_exception );
+            }
+        }, p_executor );
+    }
+
     /**
      * adds agents
      *
@@ -117,6 +273,33 @@ public interface IConsistency extends Callable<IConsistency>
     @Nonnull
     IConsistency remove( @Nonnull final Stream<IAgent<?>> p_agents );
 
+    /**
+     * adds a listener, which is invoked on each published result with the agents,
+     * which consistency is changed more than the delta or has crossed a threshold
+     *
+     * @param p_listener listener
+     * @param p_delta minimal change of the consistency
+     * @param p_thresholds consistency thresholds
+     * @return self reference
+     */
+    @Nonnull
+    default IConsistency listen( @Nonnull final IConsistencyListener p_listener, @Nonnegative final double p_delta, @Nonnull final double... p_thresholds )
+    {
+        throw new UnsupportedOperationException( "listeners are not supported" );
+    }
+
+    /**
+     * removes a listener
+     *
+     * @param p_listener listener
+     * @return self reference
+     */
+    @Nonnull
+    default IConsistency unlisten( @Nonnull final IConsistencyListener p_listener )
+    {
+        throw new UnsupportedOperationException( "listeners are not supported" );
+    }
+
     /**
      * clear
      *
@@ -125,4 +308,21 @@ public interface IConsistency extends Callable<IConsistency>
     @Nonnull
     IConsistency clear();
 
+    /**
+     * puts values into a target buffer,
+     * the remaining size is checked before writing
+     *
+     * @param p_values values
+     * @param p_target target buffer
+     * @return number of values
+     */
+    private static int copy( @Nonnull final double[] p_values, @Nonnull final DoubleBuffer p_target )
+    {
+        if ( p_target.remaining() < p_values.length )
+            throw new IllegalArgumentException( "target needs a size of " + p_values.length );
+
+        p_target.put( p_values );
+        return p_values.length;
+    }
+
 }
@@ -0,0 +1,48 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import org.lightjason.agentspeak.agent.IAgent;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+
+
+/**
+ * listener of the consistency changes, which is invoked
+ * once on each published result
+ */
+@FunctionalInterface
+public interface IConsistencyListener
+{
+
+    /**
+     * is called with the changed agents of a published result
+     *
+     * @param p_consistency consistency
+     * @param p_changes agents, which consistency is changed more than the delta or has crossed a threshold, with the new consistency
+     */
+    void changed( @Nonnull final IConsistency p_consistency, @Nonnull final Map<IAgent<?>, Double> p_changes );
+
+}
@@ -0,0 +1,88 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import javax.annotation.Nonnull;
+
+
+/**
+ * kernel of the dense row operations, the vector kernel
+ * is used if it is compiled with the vector profile and
+ * the incubator module is available on runtime
+ */
+interface IKernel
+{
+    /**
+     * class name of the vector kernel
+     */
+    String VECTORKERNEL = "org.lightjason.agentspeak.consistency.CVectorKernel";
+    /**
+     * kernel of the runtime
+     */
+    IKernel INSTANCE = IKernel.instance();
+
+    /**
+     * dot product
+     *
+     * @param p_first first vector
+     * @param p_second second vector
+     * @return dot product
+     */
+    double dot( @Nonnull final double[] p_first, @Nonnull final double[] p_second );
+
+    /**
+     * 1-norm
+     *
+     * @param p_values vector
+     * @return sum of the absolute values
+     */
+    double norm1( @Nonnull final double[] p_values );
+
+    /**
+     * scales a vector in-place
+     *
+     * @param p_values vector
+     * @param p_scale scale
+     */
+    void scale( @Nonnull final double[] p_values, final double p_scale );
+
+    /**
+     * returns the vector kernel or the scalar kernel
+     *
+     * @return kernel
+     */
+    @Nonnull
+    private static IKernel instance()
+    {
+        try
+        {
+            return (IKernel) Class.forName( VECTORKERNEL ).getDeclaredConstructor().newInstance();
+        }
+        catch ( final ReflectiveOperationException | LinkageError l_exception )
+        {
+            return new CScalarKernel();
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+
+/**
+ * linear operator of a square matrix, which
+ * can be used without creating the matrix
+ */
+interface IOperator
+{
+
+    /**
+     * number of rows and columns
+     *
+     * @return size
+     */
+    @Nonnegative
+    int size();
+
+    /**
+     * multiplies the operator with a vector
+     *
+     * @param p_input input vector
+     * @param p_output output vector, which is overwritten
+     */
+    void multiply( @Nonnull final double[] p_input, @Nonnull final double[] p_output );
+
+}
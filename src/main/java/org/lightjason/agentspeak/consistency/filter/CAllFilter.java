@@ -61,7 +61,7 @@ public final class CAllFilter extends IBaseFilter
     {
         return Stream.concat(
             p_agent.runningplans().values().stream(),
-            p_agent.beliefbase().stream( m_paths.isEmpty() ? null : m_paths.toArray( new IPath[m_paths.size()] ) )
+            p_agent.beliefbase().stream( m_patharray )
         );
     }
 
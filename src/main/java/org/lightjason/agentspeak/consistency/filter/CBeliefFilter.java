@@ -58,7 +58,7 @@ public final class CBeliefFilter extends IBaseFilter
     @Override
     public Stream<? extends ITerm> apply( final IAgent<?> p_agent )
     {
-        return p_agent.beliefbase().stream( m_paths.isEmpty() ? null : m_paths.toArray( new IPath[m_paths.size()] ) );
+        return p_agent.beliefbase().stream( m_patharray );
     }
 
 }
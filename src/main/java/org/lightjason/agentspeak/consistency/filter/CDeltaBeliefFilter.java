@@ -0,0 +1,252 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency.filter;
+
+import org.lightjason.agentspeak.agent.IAgent;
+import org.lightjason.agentspeak.common.IPath;
+import org.lightjason.agentspeak.consistency.snapshot.CSnapshot;
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
+import org.lightjason.agentspeak.language.ILiteral;
+import org.lightjason.agentspeak.language.ITerm;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+
+/**
+ * filtering for beliefs, which holds a materialized belief set
+ * of each agent and updates it with the belief changes, so
+ * the beliefbase is streamed once only, the beliefs are selected
+ * by the paths in the same way as by the belief filter, the filter
+ * does not subscribe to the beliefbase, so the caller must pass each
+ * belief change with add and remove
+ */
+public final class CDeltaBeliefFilter extends IBaseFilter
+{
+    /**
+     * materialized beliefs of each agent
+     */
+    private final Map<IAgent<?>, CBeliefs> m_beliefs = new ConcurrentHashMap<>();
+
+    /**
+     * ctor
+     *
+     * @param p_paths list of path for beliefs filter
+     */
+    public CDeltaBeliefFilter( final IPath... p_paths )
+    {
+        super( p_paths );
+    }
+
+    /**
+     * ctor
+     *
+     * @param p_paths path stream
+     */
+    public CDeltaBeliefFilter( final Stream<IPath> p_paths )
+    {
+        super( p_paths );
+    }
+
+    @Override
+    public Stream<? extends ITerm> apply( final IAgent<?> p_agent )
+    {
+        return this.beliefs( p_agent ).m_literals.stream();
+    }
+
+    @Nonnull
+    @Override
+    public ISnapshot snapshot( @Nonnull final IAgent<?> p_agent )
+    {
+        return this.beliefs( p_agent ).snapshot();
+    }
+
+    /**
+     * adds beliefs of an agent, the beliefs of an agent,
+     * which is not materialized, are materialized first
+     *
+     * @param p_agent agent
+     * @param p_literals added literals
+     * @return self reference
+     */
+    @Nonnull
+    public CDeltaBeliefFilter add( @Nonnull final IAgent<?> p_agent, @Nonnull final ILiteral... p_literals )
+    {
+        final CBeliefs l_beliefs = this.beliefs( p_agent );
+        Arrays.stream( p_literals )
+              .filter( this::accept )
+              .forEach( i ->
+              {
+                  if ( l_beliefs.m_literals.add( i ) )
+                      l_beliefs.changed();
+              } );
+        return this;
+    }
+
+    /**
+     * removes beliefs of an agent, the beliefs of an agent,
+     * which is not materialized, are materialized first
+     *
+     * @param p_agent agent
+     * @param p_literals removed literals
+     * @return self reference
+     */
+    @Nonnull
+    public CDeltaBeliefFilter remove( @Nonnull final IAgent<?> p_agent, @Nonnull final ILiteral... p_literals )
+    {
+        final CBeliefs l_beliefs = this.beliefs( p_agent );
+        Arrays.stream( p_literals )
+              .forEach( i ->
+              {
+                  if ( l_beliefs.m_literals.remove( i ) )
+                      l_beliefs.changed();
+              } );
+        return this;
+    }
+
+    /**
+     * releases the materialized beliefs of agents
+     *
+     * @param p_agents agents
+     * @return self reference
+     */
+    @Nonnull
+    public CDeltaBeliefFilter release( @Nonnull final IAgent<?>... p_agents )
+    {
+        Arrays.stream( p_agents ).forEach( m_beliefs::remove );
+        return this;
+    }
+
+    /**
+     * returns the revision of the agent beliefs, which is increased
+     * on each change, the beliefs are not materialized by this call
+     *
+     * @param p_agent agent
+     * @return revision or zero if the beliefs are not materialized
+     */
+    public long revision( @Nonnull final IAgent<?> p_agent )
+    {
+        final CBeliefs l_beliefs = m_beliefs.get( p_agent );
+        return Objects.isNull( l_beliefs ) ? 0 : l_beliefs.m_revision.get();
+    }
+
+    /**
+     * checks if the beliefs of an agent are changed
+     *
+     * @param p_agent agent
+     * @param p_revision revision of the last check
+     * @return changed flag
+     */
+    public boolean changed( @Nonnull final IAgent<?> p_agent, final long p_revision )
+    {
+        return this.revision( p_agent ) != p_revision;
+    }
+
+    /**
+     * returns the materialized beliefs of an agent and
+     * streams the beliefbase on the first access
+     *
+     * @param p_agent agent
+     * @return beliefs
+     */
+    private CBeliefs beliefs( @Nonnull final IAgent<?> p_agent )
+    {
+        return m_beliefs.computeIfAbsent( p_agent, i ->
+        {
+            final CBeliefs l_beliefs = new CBeliefs();
+            i.beliefbase().stream( m_patharray ).forEach( l_beliefs.m_literals::add );
+            return l_beliefs;
+        } );
+    }
+
+    /**
+     * checks if a literal is part of the filter paths, the beliefbase
+     * stream of the paths selects the literals with equal functor path,
+     * so a changed literal is accepted in the same way
+     *
+     * @param p_literal literal
+     * @return accept flag
+     */
+    private boolean accept( @Nonnull final ILiteral p_literal )
+    {
+        return m_paths.isEmpty() || m_paths.contains( p_literal.fqnfunctor() );
+    }
+
+
+    /**
+     * materialized beliefs
+     */
+    private static final class CBeliefs
+    {
+        /**
+         * literals
+         */
+        private final Set<ILiteral> m_literals = ConcurrentHashMap.newKeySet();
+        /**
+         * revision
+         */
+        private final AtomicLong m_revision = new AtomicLong();
+        /**
+         * cached snapshot with the revision, which is read before the snapshot is created
+         */
+        private final AtomicReference<Map.Entry<Long, ISnapshot>> m_snapshot = new AtomicReference<>();
+
+        /**
+         * marks the beliefs as changed, it is called
+         * after the literals are changed
+         */
+        private void changed()
+        {
+            m_revision.incrementAndGet();
+        }
+
+        /**
+         * returns the snapshot and creates it on the first access after a change,
+         * a snapshot is used only if its revision is the current revision, so a
+         * snapshot, which is created concurrently to a change, is not used
+         *
+         * @return snapshot
+         */
+        private ISnapshot snapshot()
+        {
+            final long l_revision = m_revision.get();
+            final Map.Entry<Long, ISnapshot> l_snapshot = m_snapshot.get();
+            if ( Objects.nonNull( l_snapshot ) && l_snapshot.getKey() == l_revision )
+                return l_snapshot.getValue();
+
+            final Map.Entry<Long, ISnapshot> l_new = new AbstractMap.SimpleImmutableEntry<>( l_revision, CSnapshot.of( m_literals.stream() ) );
+            m_snapshot.accumulateAndGet( l_new, ( i, j ) -> Objects.isNull( i ) || i.getKey() < j.getKey() ? j : i );
+            return l_new.getValue();
+        }
+    }
+
+}
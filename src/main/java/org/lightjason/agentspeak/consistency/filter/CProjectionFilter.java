@@ -0,0 +1,155 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency.filter;
+
+import org.lightjason.agentspeak.agent.IAgent;
+import org.lightjason.agentspeak.language.CLiteral;
+import org.lightjason.agentspeak.language.ILiteral;
+import org.lightjason.agentspeak.language.ITerm;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+
+/**
+ * filter pipeline, which runs the path selection of a filter,
+ * the projection of the terms and the deduplication, the
+ * pipeline is composed once on construction
+ */
+public final class CProjectionFilter implements IFilter
+{
+    /**
+     * selecting filter
+     */
+    private final IFilter m_filter;
+    /**
+     * compiled pipeline
+     */
+    private final UnaryOperator<Stream<? extends ITerm>> m_pipeline;
+
+    /**
+     * ctor
+     *
+     * @param p_filter selecting filter
+     * @param p_projection projection
+     */
+    public CProjectionFilter( @Nonnull final IFilter p_filter, @Nonnull final EProjection p_projection )
+    {
+        this( p_filter, p_projection, true );
+    }
+
+    /**
+     * ctor
+     *
+     * @param p_filter selecting filter
+     * @param p_projection projection
+     * @param p_distinct deduplicate the projected terms
+     */
+    public CProjectionFilter( @Nonnull final IFilter p_filter, @Nonnull final EProjection p_projection, final boolean p_distinct )
+    {
+        this( p_filter, p_projection, p_projection == EProjection.NONE, p_distinct );
+    }
+
+    /**
+     * ctor
+     *
+     * @param p_filter selecting filter
+     * @param p_distinct deduplicate the projected terms
+     * @param p_arguments indices of the literal arguments, which are kept
+     */
+    public CProjectionFilter( @Nonnull final IFilter p_filter, final boolean p_distinct, @Nonnegative final int... p_arguments )
+    {
+        this( p_filter, arguments( p_arguments ), false, p_distinct );
+    }
+
+    /**
+     * ctor
+     *
+     * @param p_filter selecting filter
+     * @param p_projection projection
+     * @param p_identity projection is the identity
+     * @param p_distinct deduplicate the projected terms
+     */
+    private CProjectionFilter( @Nonnull final IFilter p_filter, @Nonnull final Function<ITerm, ITerm> p_projection,
+                               final boolean p_identity, final boolean p_distinct )
+    {
+        m_filter = p_filter;
+        m_pipeline = compile( p_projection, p_identity, p_distinct );
+    }
+
+    @Override
+    public Stream<? extends ITerm> apply( final IAgent<?> p_agent )
+    {
+        return m_pipeline.apply( m_filter.apply( p_agent ) );
+    }
+
+    /**
+     * composes the pipeline and skips unused stages
+     *
+     * @param p_projection projection
+     * @param p_identity projection is the identity
+     * @param p_distinct deduplication
+     * @return pipeline
+     */
+    private static UnaryOperator<Stream<? extends ITerm>> compile( @Nonnull final Function<ITerm, ITerm> p_projection,
+                                                                   final boolean p_identity, final boolean p_distinct )
+    {
+        if ( p_identity )
+            return p_distinct ? Stream::distinct : i -> i;
+
+        return p_distinct
+               ? i -> i.map( p_projection ).distinct()
+               : i -> i.map( p_projection );
+    }
+
+    /**
+     * creates the projection of selected literal arguments,
+     * indices outside the arguments are ignored
+     *
+     * @param p_arguments argument indices
+     * @return projection
+     */
+    private static Function<ITerm, ITerm> arguments( @Nonnull final int... p_arguments )
+    {
+        final int[] l_arguments = Arrays.stream( p_arguments ).filter( i -> i >= 0 ).sorted().distinct().toArray();
+        return i ->
+        {
+            if ( !( i instanceof ILiteral ) )
+                return i;
+
+            final ILiteral l_literal = (ILiteral) i;
+            final ITerm[] l_values = l_literal.values().toArray( ITerm[]::new );
+            return CLiteral.of(
+                l_literal.negated(),
+                l_literal.fqnfunctor(),
+                Arrays.stream( l_arguments ).filter( j -> j < l_values.length ).mapToObj( j -> l_values[j] ).toArray( ITerm[]::new )
+            );
+        };
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency.filter;
+
+import org.lightjason.agentspeak.language.CLiteral;
+import org.lightjason.agentspeak.language.CRawTerm;
+import org.lightjason.agentspeak.language.ILiteral;
+import org.lightjason.agentspeak.language.ITerm;
+
+import javax.annotation.Nonnull;
+import java.util.function.Function;
+
+
+/**
+ * projection of filtered terms, literals are reduced
+ * and other terms are passed without modification
+ */
+public enum EProjection implements Function<ITerm, ITerm>
+{
+    /**
+     * full literal with all arguments
+     */
+    NONE
+    {
+        @Override
+        protected ITerm project( @Nonnull final ILiteral p_literal )
+        {
+            return p_literal;
+        }
+    },
+    /**
+     * functor without arguments
+     */
+    FUNCTOR
+    {
+        @Override
+        protected ITerm project( @Nonnull final ILiteral p_literal )
+        {
+            return CLiteral.of( p_literal.negated(), p_literal.fqnfunctor() );
+        }
+    },
+    /**
+     * functor with the number of arguments
+     */
+    ARITY
+    {
+        @Override
+        protected ITerm project( @Nonnull final ILiteral p_literal )
+        {
+            return CLiteral.of( p_literal.negated(), p_literal.fqnfunctor(), CRawTerm.of( p_literal.values().count() ) );
+        }
+    };
+
+
+    @Override
+    public final ITerm apply( @Nonnull final ITerm p_term )
+    {
+        return p_term instanceof ILiteral ? this.project( (ILiteral) p_term ) : p_term;
+    }
+
+    /**
+     * projects a literal
+     *
+     * @param p_literal literal
+     * @return projected term
+     */
+    protected abstract ITerm project( @Nonnull final ILiteral p_literal );
+
+}
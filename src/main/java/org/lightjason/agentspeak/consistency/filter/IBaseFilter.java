@@ -43,6 +43,10 @@ public abstract class IBaseFilter implements IFilter
      * set with paths
      */
     protected final Set<IPath> m_paths;
+    /**
+     * path array for the beliefbase stream or null for all beliefs
+     */
+    protected final IPath[] m_patharray;
 
     /**
      * ctor
@@ -54,6 +58,7 @@ public abstract class IBaseFilter implements IFilter
         m_paths = Objects.isNull( p_paths )
                   ? Collections.emptySet()
                   : Arrays.stream( p_paths ).collect( Collectors.toSet() );
+        m_patharray = patharray( m_paths );
     }
 
     /**
@@ -64,6 +69,18 @@ public abstract class IBaseFilter implements IFilter
     protected IBaseFilter( @Nonnull final Stream<IPath> p_paths )
     {
         m_paths = p_paths.collect( Collectors.toSet() );
+        m_patharray = patharray( m_paths );
+    }
+
+    /**
+     * creates the path array once, so the filter call does not allocate it
+     *
+     * @param p_paths path set
+     * @return path array or null on an empty set
+     */
+    private static IPath[] patharray( @Nonnull final Set<IPath> p_paths )
+    {
+        return p_paths.isEmpty() ? null : p_paths.toArray( new IPath[0] );
     }
 
 }
@@ -24,8 +24,11 @@
 package org.lightjason.agentspeak.consistency.filter;
 
 import org.lightjason.agentspeak.agent.IAgent;
+import org.lightjason.agentspeak.consistency.snapshot.CSnapshot;
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
 import org.lightjason.agentspeak.language.ITerm;
 
+import javax.annotation.Nonnull;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -35,4 +38,17 @@ import java.util.stream.Stream;
  */
 public interface IFilter extends Function<IAgent<?>, Stream<? extends ITerm>>
 {
+
+    /**
+     * creates the snapshot of the filtered terms
+     *
+     * @param p_agent agent
+     * @return snapshot
+     */
+    @Nonnull
+    default ISnapshot snapshot( @Nonnull final IAgent<?> p_agent )
+    {
+        return CSnapshot.of( this.apply( p_agent ) );
+    }
+
 }
@@ -0,0 +1,231 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency.io;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * reader of a binary consistency result, the file is mapped into memory,
+ * so all values are read-only views of the file without copying, a mapping
+ * is limited to 2 GiB, so files with a large transition matrix cannot be read
+ */
+public final class CBinaryReader
+{
+    /**
+     * number of agents
+     */
+    private final int m_size;
+    /**
+     * statistic values (count, mean, standard deviation, minimum, maximum)
+     */
+    private final double[] m_statistic;
+    /**
+     * agent identifiers
+     */
+    private final LongBuffer m_identifiers;
+    /**
+     * consistency values
+     */
+    private final DoubleBuffer m_consistency;
+    /**
+     * inconsistency values
+     */
+    private final DoubleBuffer m_inconsistency;
+    /**
+     * row-major transition matrix, which is empty if it is not stored
+     */
+    private final DoubleBuffer m_transition;
+
+    /**
+     * ctor
+     *
+     * @param p_buffer mapped file
+     */
+    private CBinaryReader( @Nonnull final ByteBuffer p_buffer )
+    {
+        if ( p_buffer.getInt() != CBinaryWriter.MAGIC )
+            throw new IllegalArgumentException( "file is not a consistency result" );
+        if ( p_buffer.getInt() != CBinaryWriter.VERSION )
+            throw new IllegalArgumentException( "version of the consistency result is not supported" );
+
+        m_size = p_buffer.getInt();
+        final boolean l_transition = ( p_buffer.getInt() & CBinaryWriter.TRANSITION ) != 0;
+        m_statistic = new double[]{p_buffer.getDouble(), p_buffer.getDouble(), p_buffer.getDouble(), p_buffer.getDouble(), p_buffer.getDouble()};
+
+        m_identifiers = slice( p_buffer, CBinaryWriter.HEADERSIZE, m_size * Long.BYTES ).asLongBuffer();
+        m_consistency = slice( p_buffer, CBinaryWriter.HEADERSIZE + m_size * Long.BYTES, m_size * Double.BYTES ).asDoubleBuffer();
+        m_inconsistency = slice( p_buffer, CBinaryWriter.HEADERSIZE + m_size * ( Long.BYTES + Double.BYTES ), m_size * Double.BYTES ).asDoubleBuffer();
+        m_transition = slice(
+            p_buffer,
+            CBinaryWriter.HEADERSIZE + m_size * ( Long.BYTES + 2 * Double.BYTES ),
+            l_transition ? Math.multiplyExact( Math.multiplyExact( m_size, m_size ), Double.BYTES ) : 0
+        ).asDoubleBuffer();
+    }
+
+    /**
+     * maps a file
+     *
+     * @param p_path file
+     * @return reader
+     * @throws IOException is thrown on io error
+     */
+    @Nonnull
+    public static CBinaryReader of( @Nonnull final Path p_path ) throws IOException
+    {
+        try ( final FileChannel l_channel = FileChannel.open( p_path, StandardOpenOption.READ ) )
+        {
+            return new CBinaryReader( l_channel.map( FileChannel.MapMode.READ_ONLY, 0, l_channel.size() ).order( ByteOrder.LITTLE_ENDIAN ) );
+        }
+    }
+
+    /**
+     * returns the number of agents
+     *
+     * @return number of agents
+     */
+    @Nonnegative
+    public int size()
+    {
+        return m_size;
+    }
+
+    /**
+     * returns the number of statistic values
+     *
+     * @return count
+     */
+    @Nonnegative
+    public long count()
+    {
+        return (long) m_statistic[0];
+    }
+
+    /**
+     * returns the mean of the statistic
+     *
+     * @return mean
+     */
+    public double mean()
+    {
+        return m_statistic[1];
+    }
+
+    /**
+     * returns the standard deviation of the statistic
+     *
+     * @return standard deviation
+     */
+    public double standarddeviation()
+    {
+        return m_statistic[2];
+    }
+
+    /**
+     * returns the minimum of the statistic
+     *
+     * @return minimum
+     */
+    public double min()
+    {
+        return m_statistic[3];
+    }
+
+    /**
+     * returns the maximum of the statistic
+     *
+     * @return maximum
+     */
+    public double max()
+    {
+        return m_statistic[4];
+    }
+
+    /**
+     * returns the agent identifiers
+     *
+     * @return read-only buffer
+     */
+    @Nonnull
+    public LongBuffer identifiers()
+    {
+        return m_identifiers.duplicate();
+    }
+
+    /**
+     * returns the consistency values
+     *
+     * @return read-only buffer
+     */
+    @Nonnull
+    public DoubleBuffer consistency()
+    {
+        return m_consistency.duplicate();
+    }
+
+    /**
+     * returns the inconsistency values
+     *
+     * @return read-only buffer
+     */
+    @Nonnull
+    public DoubleBuffer inconsistency()
+    {
+        return m_inconsistency.duplicate();
+    }
+
+    /**
+     * returns the row-major transition matrix
+     *
+     * @return read-only buffer, which is empty if the matrix is not stored
+     */
+    @Nonnull
+    public DoubleBuffer transition()
+    {
+        return m_transition.duplicate();
+    }
+
+    /**
+     * creates a little-endian view of a region
+     *
+     * @param p_buffer buffer
+     * @param p_position start position
+     * @param p_length length in bytes
+     * @return view
+     */
+    private static ByteBuffer slice( @Nonnull final ByteBuffer p_buffer, final int p_position, final int p_length )
+    {
+        return p_buffer.duplicate().position( p_position ).limit( p_position + p_length ).slice().order( ByteOrder.LITTLE_ENDIAN );
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency.io;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.lightjason.agentspeak.agent.IAgent;
+import org.lightjason.agentspeak.consistency.IConsistency;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * binary writer of a consistency result, the file is written in little-endian
+ * order with a header (magic number, version, number of agents, flags, count,
+ * mean, standard deviation, minimum and maximum of the statistic) followed by
+ * the agent identifiers, the consistency values, the inconsistency values and
+ * optionally the row-major transition matrix, the agents, the values and the
+ * statistic of the inconsistency values are read from one published result
+ */
+public final class CBinaryWriter
+{
+    /**
+     * magic number
+     */
+    static final int MAGIC = 0x4C4A4353;
+    /**
+     * format version
+     */
+    static final int VERSION = 1;
+    /**
+     * flag of the transition matrix
+     */
+    static final int TRANSITION = 1;
+    /**
+     * size of the header in bytes
+     */
+    static final int HEADERSIZE = 4 * Integer.BYTES + 5 * Double.BYTES;
+    /**
+     * size of the write buffer
+     */
+    private static final int BUFFERSIZE = 1 << 16;
+
+    /**
+     * ctor
+     */
+    private CBinaryWriter()
+    {
+    }
+
+    /**
+     * writes a consistency result
+     *
+     * @param p_path file
+     * @param p_consistency consistency
+     * @param p_identifier function to get the identifier of an agent
+     * @throws IOException is thrown on io error
+     */
+    public static void write( @Nonnull final Path p_path, @Nonnull final IConsistency p_consistency,
+                              @Nonnull final ToLongFunction<IAgent<?>> p_identifier ) throws IOException
+    {
+        write( p_path, p_consistency, p_identifier, Stream.empty() );
+    }
+
+    /**
+     * writes a consistency result with the transition matrix, the
+     * agent order of the transition matrix is used if it exists
+     *
+     * @param p_path file
+     * @param p_consistency consistency
+     * @param p_identifier function to get the identifier of an agent
+     * @param p_transition stream of agent and matrix row
+     * @throws IOException is thrown on io error
+     */
+    public static void write( @Nonnull final Path p_path, @Nonnull final IConsistency p_consistency,
+                              @Nonnull final ToLongFunction<IAgent<?>> p_identifier,
+                              @Nonnull final Stream<Map.Entry<IAgent<?>, double[]>> p_transition ) throws IOException
+    {
+        final List<Map.Entry<IAgent<?>, double[]>> l_rows = p_transition.collect( Collectors.toList() );
+        final int l_size = p_consistency.agents().length;
+        final double[] l_consistencies = new double[l_size];
+        final double[] l_inconsistencies = new double[l_size];
+        final IAgent<?>[] l_result = p_consistency.result( l_consistencies, l_inconsistencies );
+
+        // a result with less agents can be published after the size was read
+        final double[] l_consistency = l_result.length == l_size ? l_consistencies : Arrays.copyOf( l_consistencies, l_result.length );
+        final double[] l_inconsistency = l_result.length == l_size ? l_inconsistencies : Arrays.copyOf( l_inconsistencies, l_result.length );
+        final DescriptiveStatistics l_statistic = new DescriptiveStatistics( l_inconsistency );
+
+        // values are reordered only if the transition matrix has another agent order
+        final IAgent<?>[] l_agents = l_rows.isEmpty() ? l_result : l_rows.stream().map( Map.Entry::getKey ).toArray( IAgent<?>[]::new );
+        if ( !Arrays.equals( l_agents, l_result ) )
+            reorder( l_result, l_agents, l_consistency, l_inconsistency );
+
+        try (
+            final FileChannel l_channel = FileChannel.open( p_path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE )
+        )
+        {
+            final ByteBuffer l_buffer = ByteBuffer.allocateDirect( BUFFERSIZE ).order( ByteOrder.LITTLE_ENDIAN );
+
+            l_buffer.putInt( MAGIC )
+                    .putInt( VERSION )
+                    .putInt( l_agents.length )
+                    .putInt( l_rows.isEmpty() ? 0 : TRANSITION )
+                    .putDouble( l_statistic.getN() )
+                    .putDouble( l_statistic.getMean() )
+                    .putDouble( l_statistic.getStandardDeviation() )
+                    .putDouble( l_statistic.getMin() )
+                    .putDouble( l_statistic.getMax() );
+
+            for ( final IAgent<?> l_agent : l_agents )
+                flush( l_channel, l_buffer, Long.BYTES ).putLong( p_identifier.applyAsLong( l_agent ) );
+            for ( final double l_value : l_consistency )
+                flush( l_channel, l_buffer, Double.BYTES ).putDouble( l_value );
+            for ( final double l_value : l_inconsistency )
+                flush( l_channel, l_buffer, Double.BYTES ).putDouble( l_value );
+            for ( final Map.Entry<IAgent<?>, double[]> l_row : l_rows )
+                for ( final double l_value : l_row.getValue() )
+                    flush( l_channel, l_buffer, Double.BYTES ).putDouble( l_value );
+
+            l_buffer.flip();
+            while ( l_buffer.hasRemaining() )
+                l_channel.write( l_buffer );
+        }
+    }
+
+    /**
+     * reorders the values from the result order into the agent order
+     *
+     * @param p_result agents in the result order
+     * @param p_agents agents in the target order
+     * @param p_consistency consistency values, which are reordered in-place
+     * @param p_inconsistency inconsistency values, which are reordered in-place
+     */
+    private static void reorder( @Nonnull final IAgent<?>[] p_result, @Nonnull final IAgent<?>[] p_agents,
+                                 @Nonnull final double[] p_consistency, @Nonnull final double[] p_inconsistency )
+    {
+        if ( p_result.length != p_agents.length )
+            throw new IllegalArgumentException( "transition matrix and result have a different number of agents" );
+
+        final Map<IAgent<?>, Integer> l_index = new HashMap<>();
+        for ( int i = 0; i < p_result.length; i++ )
+            l_index.put( p_result[i], i );
+
+        final double[] l_consistency = p_consistency.clone();
+        final double[] l_inconsistency = p_inconsistency.clone();
+        for ( int i = 0; i < p_agents.length; i++ )
+        {
+            final Integer l_position = l_index.get( p_agents[i] );
+            if ( Objects.isNull( l_position ) )
+                throw new IllegalArgumentException( "agent of the transition matrix does not exist in the result" );
+
+            p_consistency[i] = l_consistency[l_position];
+            p_inconsistency[i] = l_inconsistency[l_position];
+        }
+    }
+
+    /**
+     * writes the buffer to the channel if
+     * the remaining space is not sufficient
+     *
+     * @param p_channel channel
+     * @param p_buffer buffer
+     * @param p_size number of bytes, which will be put
+     * @return buffer
+     * @throws IOException is thrown on io error
+     */
+    private static ByteBuffer flush( @Nonnull final FileChannel p_channel, @Nonnull final ByteBuffer p_buffer, final int p_size ) throws IOException
+    {
+        if ( p_buffer.remaining() >= p_size )
+            return p_buffer;
+
+        p_buffer.flip();
+        while ( p_buffer.hasRemaining() )
+            p_channel.write( p_buffer );
+        return p_buffer.clear();
+    }
+
+}
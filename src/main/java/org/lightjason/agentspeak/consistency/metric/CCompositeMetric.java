@@ -0,0 +1,122 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency.metric;
+
+import org.lightjason.agentspeak.consistency.snapshot.CSnapshot;
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
+import org.lightjason.agentspeak.language.ITerm;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+
+/**
+ * weighted sum of metrics, which are calculated
+ * on the same snapshots of a pair
+ */
+public final class CCompositeMetric implements IMetric
+{
+    /**
+     * metrics
+     */
+    private final IMetric[] m_metrics;
+    /**
+     * weights
+     */
+    private final double[] m_weights;
+
+    /**
+     * ctor
+     *
+     * @param p_metrics metrics with equal weights
+     */
+    public CCompositeMetric( @Nonnull final IMetric... p_metrics )
+    {
+        this( Arrays.stream( p_metrics ).mapToDouble( i -> 1.0 / p_metrics.length ).toArray(), p_metrics );
+    }
+
+    /**
+     * ctor
+     *
+     * @param p_weights weight of each metric
+     * @param p_metrics metrics
+     */
+    public CCompositeMetric( @Nonnull final double[] p_weights, @Nonnull final IMetric... p_metrics )
+    {
+        if ( p_weights.length != p_metrics.length )
+            throw new IllegalArgumentException( "number of weights and metrics must be equal" );
+
+        m_weights = p_weights.clone();
+        m_metrics = p_metrics.clone();
+    }
+
+    @Override
+    public Number apply( final Stream<? extends ITerm> p_first, final Stream<? extends ITerm> p_second )
+    {
+        return this.apply( CSnapshot.of( p_first ), CSnapshot.of( p_second ) );
+    }
+
+    @Override
+    public Number apply( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second )
+    {
+        double l_value = 0;
+        for ( int i = 0; i < m_metrics.length; i++ )
+            l_value += m_weights[i] * m_metrics[i].apply( p_first, p_second ).doubleValue();
+        return l_value;
+    }
+
+    @Override
+    public void row( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot[] p_second, @Nonnegative final int p_from,
+                     @Nonnegative final int p_to, @Nonnull final double[] p_result )
+    {
+        // each metric fills its row into the scratch buffer, so the row paths of the metrics are used
+        final double[] l_scratch = new double[p_to];
+        Arrays.fill( p_result, p_from, p_to, 0 );
+        for ( int i = 0; i < m_metrics.length; i++ )
+        {
+            m_metrics[i].row( p_first, p_second, p_from, p_to, l_scratch );
+            for ( int k = p_from; k < p_to; k++ )
+                p_result[k] += m_weights[i] * l_scratch[k];
+        }
+    }
+
+    /**
+     * calculates the unweighted value of each metric
+     *
+     * @param p_first first snapshot
+     * @param p_second second snapshot
+     * @return values in the order of the metrics
+     */
+    @Nonnull
+    public double[] values( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second )
+    {
+        final double[] l_values = new double[m_metrics.length];
+        for ( int i = 0; i < m_metrics.length; i++ )
+            l_values[i] = m_metrics[i].apply( p_first, p_second ).doubleValue();
+        return l_values;
+    }
+
+}
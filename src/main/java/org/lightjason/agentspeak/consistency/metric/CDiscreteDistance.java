@@ -23,8 +23,11 @@
 
 package org.lightjason.agentspeak.consistency.metric;
 
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
 import org.lightjason.agentspeak.language.ITerm;
 
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.stream.Collectors;
@@ -32,12 +35,36 @@ import java.util.stream.Stream;
 
 
 /**
- * generic discrete metric
+ * generic discrete metric, snapshots are compared
+ * by their order-independent digest, so the metric
+ * value of two snapshots is calculated in constant time
  *
  * @see <a href="http://mathworld.wolfram.com/DiscreteMetric.html"></a>
  */
 public final class CDiscreteDistance implements IMetric
 {
+    /**
+     * exact verification of equal digests
+     */
+    private final boolean m_verify;
+
+    /**
+     * ctor
+     */
+    public CDiscreteDistance()
+    {
+        this( false );
+    }
+
+    /**
+     * ctor
+     *
+     * @param p_verify verifies the terms exactly if the digests are equal
+     */
+    public CDiscreteDistance( final boolean p_verify )
+    {
+        m_verify = p_verify;
+    }
 
     @Override
     public Number apply( final Stream<? extends ITerm> p_first, final Stream<? extends ITerm> p_second )
@@ -48,4 +75,33 @@ public final class CDiscreteDistance implements IMetric
         return ( l_first.containsAll( l_second ) ) && ( l_second.containsAll( l_first ) ) ? 0.0 : 1.0;
     }
 
+    @Override
+    public Number apply( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second )
+    {
+        return this.distance( p_first, p_second );
+    }
+
+    @Override
+    public void row( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot[] p_second, @Nonnegative final int p_from,
+                     @Nonnegative final int p_to, @Nonnull final double[] p_result )
+    {
+        for ( int k = p_from; k < p_to; k++ )
+            p_result[k] = this.distance( p_first, p_second[k] );
+    }
+
+    /**
+     * calculates the metric value of two snapshots without boxing
+     *
+     * @param p_first first snapshot
+     * @param p_second second snapshot
+     * @return metric value
+     */
+    private double distance( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second )
+    {
+        if ( p_first.lowdigest() != p_second.lowdigest() || p_first.highdigest() != p_second.highdigest() )
+            return 1;
+
+        return m_verify ? this.apply( p_first.stream(), p_second.stream() ).doubleValue() : 0;
+    }
+
 }
@@ -24,9 +24,12 @@
 package org.lightjason.agentspeak.consistency.metric;
 
 
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
 import org.lightjason.agentspeak.language.CCommon;
 import org.lightjason.agentspeak.language.ITerm;
 
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,7 +39,7 @@ import java.util.stream.Stream;
  *
  * @see <a href="https://en.wikipedia.org/wiki/Levenshtein_distance"></a>
  */
-public final class CLevenshteinDistance implements IMetric
+public final class CLevenshteinDistance implements IBoundedMetric
 {
     /**
      * cost / weight of insert operation
@@ -84,4 +87,102 @@ public final class CLevenshteinDistance implements IMetric
         );
     }
 
+    @Override
+    public Number apply( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second )
+    {
+        return this.levenshtein( p_first.string(), p_second.string(), Double.POSITIVE_INFINITY );
+    }
+
+    @Override
+    public double apply( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second, final double p_bound )
+    {
+        return this.levenshtein( p_first.string(), p_second.string(), p_bound );
+    }
+
+    @Override
+    public void row( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot[] p_second, @Nonnegative final int p_from,
+                     @Nonnegative final int p_to, @Nonnull final double[] p_result )
+    {
+        // the row buffers are allocated once with the longest second string
+        final String l_first = p_first.string();
+        int l_length = 0;
+        for ( int k = p_from; k < p_to; k++ )
+            l_length = Math.max( l_length, p_second[k].string().length() );
+
+        final double[] l_previous = new double[l_length + 1];
+        final double[] l_current = new double[l_length + 1];
+        for ( int k = p_from; k < p_to; k++ )
+            p_result[k] = this.levenshtein( l_first, p_second[k].string(), Double.POSITIVE_INFINITY, l_previous, l_current );
+    }
+
+    /**
+     * weighted levenshtein distance on the characters of the canonical
+     * string, like the term stream distance, the minimum of a row is a
+     * lower bound of the distance, so the calculation stops if the row
+     * minimum exceeds the bound
+     *
+     * @param p_first first string
+     * @param p_second second string
+     * @param p_bound upper bound
+     * @return distance or a lower bound larger than the bound
+     */
+    private double levenshtein( @Nonnull final String p_first, @Nonnull final String p_second, final double p_bound )
+    {
+        return this.levenshtein( p_first, p_second, p_bound, new double[p_second.length() + 1], new double[p_second.length() + 1] );
+    }
+
+    /**
+     * weighted levenshtein distance on the characters of the canonical string with row buffers
+     *
+     * @param p_first first string
+     * @param p_second second string
+     * @param p_bound upper bound
+     * @param p_previous previous row buffer with at least the length of the second string plus one
+     * @param p_current current row buffer with at least the length of the second string plus one
+     * @return distance or a lower bound larger than the bound
+     */
+    private double levenshtein( @Nonnull final String p_first, @Nonnull final String p_second, final double p_bound,
+                                @Nonnull final double[] p_previous, @Nonnull final double[] p_current )
+    {
+        final int l_firstlength = p_first.length();
+        final int l_secondlength = p_second.length();
+
+        // the length difference must be inserted or deleted
+        final double l_lengthbound = l_firstlength > l_secondlength
+                                     ? ( l_firstlength - l_secondlength ) * m_deleteweight
+                                     : ( l_secondlength - l_firstlength ) * m_insertweight;
+        if ( IBoundedMetric.exceeds( l_lengthbound, p_bound ) )
+            return l_lengthbound;
+
+        double[] l_previous = p_previous;
+        double[] l_current = p_current;
+        for ( int j = 0; j <= l_secondlength; j++ )
+            l_previous[j] = j * m_insertweight;
+
+        for ( int i = 1; i <= l_firstlength; i++ )
+        {
+            final char l_char = p_first.charAt( i - 1 );
+            l_current[0] = i * m_deleteweight;
+            double l_minimum = l_current[0];
+
+            for ( int j = 1; j <= l_secondlength; j++ )
+            {
+                l_current[j] = Math.min(
+                    Math.min( l_previous[j] + m_deleteweight, l_current[j - 1] + m_insertweight ),
+                    l_previous[j - 1] + ( l_char == p_second.charAt( j - 1 ) ? 0 : m_replaceweight )
+                );
+                l_minimum = Math.min( l_minimum, l_current[j] );
+            }
+
+            if ( IBoundedMetric.exceeds( l_minimum, p_bound ) )
+                return l_minimum;
+
+            final double[] l_swap = l_previous;
+            l_previous = l_current;
+            l_current = l_swap;
+        }
+
+        return l_previous[l_secondlength];
+    }
+
 }
@@ -23,9 +23,11 @@
 
 package org.lightjason.agentspeak.consistency.metric;
 
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
 import org.lightjason.agentspeak.language.CCommon;
 import org.lightjason.agentspeak.language.ITerm;
 
+import javax.annotation.Nonnull;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -70,4 +72,10 @@ public final class CNCD implements IMetric
         );
     }
 
+    @Override
+    public Number apply( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second )
+    {
+        return CCommon.ncd( m_compression, p_first.string(), p_second.string() );
+    }
+
 }
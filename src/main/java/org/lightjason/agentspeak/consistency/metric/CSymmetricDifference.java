@@ -23,10 +23,14 @@
 
 package org.lightjason.agentspeak.consistency.metric;
 
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
 import org.lightjason.agentspeak.language.ITerm;
 
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,7 +40,7 @@ import java.util.stream.Stream;
  *
  * @see <a href="http://mathworld.wolfram.com/SymmetricDifference.html"></a>
  */
-public final class CSymmetricDifference implements IMetric
+public final class CSymmetricDifference implements IBoundedMetric
 {
 
     @Override
@@ -53,4 +57,56 @@ public final class CSymmetricDifference implements IMetric
                               .count();
     }
 
+    @Override
+    public Number apply( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second )
+    {
+        return this.apply( p_first, p_second, Double.POSITIVE_INFINITY );
+    }
+
+    @Override
+    public double apply( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second, final double p_bound )
+    {
+        return difference( p_first.stream().collect( Collectors.toCollection( HashSet::new ) ), p_second, p_bound );
+    }
+
+    @Override
+    public void row( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot[] p_second, @Nonnegative final int p_from,
+                     @Nonnegative final int p_to, @Nonnull final double[] p_result )
+    {
+        // the set of the first snapshot is built once for the row
+        final Set<ITerm> l_first = p_first.stream().collect( Collectors.toCollection( HashSet::new ) );
+        for ( int k = p_from; k < p_to; k++ )
+            p_result[k] = difference( l_first, p_second[k], Double.POSITIVE_INFINITY );
+    }
+
+    /**
+     * calculates the size of the symmetric difference with an upper bound,
+     * the second snapshot is sorted, so equal terms are neighbours and
+     * each distinct term is counted once without a set of the terms
+     *
+     * @param p_first term set of the first snapshot
+     * @param p_second second snapshot
+     * @param p_bound upper bound
+     * @return exact value or a lower bound larger than the bound
+     */
+    private static double difference( @Nonnull final Set<ITerm> p_first, @Nonnull final ISnapshot p_second, final double p_bound )
+    {
+        // elements of the second snapshot, which are not in the first, are a lower bound
+        int l_common = 0;
+        int l_secondonly = 0;
+        for ( int i = 0; i < p_second.size(); i++ )
+        {
+            final ITerm l_term = p_second.get( i );
+            if ( i > 0 && l_term.equals( p_second.get( i - 1 ) ) )
+                continue;
+
+            if ( p_first.contains( l_term ) )
+                l_common++;
+            else if ( IBoundedMetric.exceeds( ++l_secondonly, p_bound ) )
+                return l_secondonly;
+        }
+
+        return p_first.size() - l_common + l_secondonly;
+    }
+
 }
@@ -0,0 +1,61 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency.metric;
+
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
+
+import javax.annotation.Nonnull;
+
+
+/**
+ * metric, which can stop the calculation if
+ * the value exceeds an upper bound
+ */
+public interface IBoundedMetric extends IMetric
+{
+
+    /**
+     * calculates the metric value with an upper bound
+     *
+     * @param p_first first snapshot
+     * @param p_second second snapshot
+     * @param p_bound upper bound
+     * @return exact value, if the value is not larger than the bound, otherwise
+     * a lower bound of the value, which is larger than the bound
+     */
+    double apply( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second, final double p_bound );
+
+    /**
+     * checks if a bounded value exceeds the bound
+     *
+     * @param p_value bounded value
+     * @param p_bound bound
+     * @return value is not exact
+     */
+    static boolean exceeds( final double p_value, final double p_bound )
+    {
+        return p_value > p_bound;
+    }
+
+}
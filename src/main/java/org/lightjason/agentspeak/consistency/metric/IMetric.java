@@ -23,8 +23,11 @@
 
 package org.lightjason.agentspeak.consistency.metric;
 
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
 import org.lightjason.agentspeak.language.ITerm;
 
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
 
@@ -36,4 +39,34 @@ import java.util.stream.Stream;
  */
 public interface IMetric extends BiFunction<Stream<? extends ITerm>, Stream<? extends ITerm>, Number>
 {
+
+    /**
+     * calculates the metric value of two snapshots
+     *
+     * @param p_first first snapshot
+     * @param p_second second snapshot
+     * @return metric value
+     */
+    default Number apply( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second )
+    {
+        return this.apply( p_first.stream(), p_second.stream() );
+    }
+
+    /**
+     * calculates the metric values of one snapshot to a range of snapshots,
+     * so a metric can reuse the state of the first snapshot over a matrix row
+     *
+     * @param p_first first snapshot
+     * @param p_second second snapshots
+     * @param p_from first index of the range (inclusive)
+     * @param p_to last index of the range (exclusive)
+     * @param p_result result array, the value of the second snapshot at index k is stored at index k
+     */
+    default void row( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot[] p_second, @Nonnegative final int p_from,
+                      @Nonnegative final int p_to, @Nonnull final double[] p_result )
+    {
+        for ( int k = p_from; k < p_to; k++ )
+            p_result[k] = this.apply( p_first, p_second[k] ).doubleValue();
+    }
+
 }
@@ -0,0 +1,223 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency.snapshot;
+
+import org.lightjason.agentspeak.language.ITerm;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * snapshot, which sorts the terms by their string
+ * representation, so the encoding is independent of
+ * the beliefbase order, the encoding is the UTF-8
+ * representation of the term strings, each terminated by
+ * a zero byte, so term boundaries are part of the encoding,
+ * the string joins the term strings without a separator,
+ * the digest is the lane-wise sum of two 64-bit hashes of
+ * each distinct term string
+ */
+public final class CSnapshot implements ISnapshot
+{
+    /**
+     * empty snapshot
+     */
+    public static final ISnapshot EMPTY = new CSnapshot( new ITerm[0], new byte[0], 0, 0 );
+    /**
+     * FNV-1a prime of the term hash
+     */
+    private static final long PRIME = 0x100000001b3L;
+    /**
+     * FNV-1a offset of the low lane
+     */
+    private static final long LOWOFFSET = 0xcbf29ce484222325L;
+    /**
+     * offset of the high lane
+     */
+    private static final long HIGHOFFSET = 0x9e3779b97f4a7c15L;
+    /**
+     * separator of the terms within the encoding
+     */
+    private static final String SEPARATOR = "\0";
+    /**
+     * sorted terms
+     */
+    private final ITerm[] m_terms;
+    /**
+     * encoding
+     */
+    private final byte[] m_encoding;
+    /**
+     * read-only encoding buffer
+     */
+    private final ByteBuffer m_buffer;
+    /**
+     * canonical string, which is created on demand
+     */
+    private volatile String m_string;
+    /**
+     * low digest lane
+     */
+    private final long m_lowdigest;
+    /**
+     * high digest lane
+     */
+    private final long m_highdigest;
+
+    /**
+     * ctor
+     *
+     * @param p_terms sorted terms
+     * @param p_encoding encoding
+     * @param p_lowdigest low digest lane
+     * @param p_highdigest high digest lane
+     */
+    private CSnapshot( @Nonnull final ITerm[] p_terms, @Nonnull final byte[] p_encoding, final long p_lowdigest, final long p_highdigest )
+    {
+        m_terms = p_terms;
+        m_encoding = p_encoding;
+        m_lowdigest = p_lowdigest;
+        m_highdigest = p_highdigest;
+        m_buffer = ByteBuffer.wrap( m_encoding ).asReadOnlyBuffer();
+    }
+
+    /**
+     * creates a snapshot
+     *
+     * @param p_terms term stream
+     * @return snapshot
+     */
+    @Nonnull
+    public static ISnapshot of( @Nonnull final Stream<? extends ITerm> p_terms )
+    {
+        final List<Map.Entry<String, ITerm>> l_terms = p_terms.map( i -> new AbstractMap.SimpleImmutableEntry<String, ITerm>( i.toString(), i ) )
+                                                              .sorted( Map.Entry.comparingByKey() )
+                                                              .collect( Collectors.toList() );
+
+        if ( l_terms.isEmpty() )
+            return EMPTY;
+
+        // the terms are sorted, so equal strings are neighbours and are hashed once
+        long l_lowdigest = 0;
+        long l_highdigest = 0;
+        for ( int i = 0; i < l_terms.size(); i++ )
+            if ( i == 0 || !l_terms.get( i - 1 ).getKey().equals( l_terms.get( i ).getKey() ) )
+            {
+                l_lowdigest += hash( l_terms.get( i ).getKey(), LOWOFFSET );
+                l_highdigest += hash( l_terms.get( i ).getKey(), HIGHOFFSET );
+            }
+
+        return new CSnapshot(
+            l_terms.stream().map( Map.Entry::getValue ).toArray( ITerm[]::new ),
+            l_terms.stream().map( Map.Entry::getKey ).collect( Collectors.joining( SEPARATOR, "", SEPARATOR ) ).getBytes( StandardCharsets.UTF_8 ),
+            l_lowdigest,
+            l_highdigest
+        );
+    }
+
+    /**
+     * 64-bit hash of a string, FNV-1a over the characters
+     * with the finalizer of splitmix64 for the avalanche
+     *
+     * @param p_string string
+     * @param p_offset offset
+     * @return hash
+     */
+    private static long hash( @Nonnull final String p_string, final long p_offset )
+    {
+        long l_hash = p_offset;
+        for ( int i = 0; i < p_string.length(); i++ )
+            l_hash = ( l_hash ^ p_string.charAt( i ) ) * PRIME;
+
+        l_hash = ( l_hash ^ ( l_hash >>> 30 ) ) * 0xbf58476d1ce4e5b9L;
+        l_hash = ( l_hash ^ ( l_hash >>> 27 ) ) * 0x94d049bb133111ebL;
+        return l_hash ^ ( l_hash >>> 31 );
+    }
+
+    @Nonnull
+    @Override
+    public Stream<ITerm> stream()
+    {
+        return Arrays.stream( m_terms );
+    }
+
+    @Nonnull
+    @Override
+    public ITerm get( @Nonnegative final int p_index )
+    {
+        return m_terms[p_index];
+    }
+
+    @Nonnegative
+    @Override
+    public int size()
+    {
+        return m_terms.length;
+    }
+
+    @Nonnull
+    @Override
+    public ByteBuffer encoding()
+    {
+        return m_buffer.duplicate();
+    }
+
+    @Nonnull
+    @Override
+    public String string()
+    {
+        if ( Objects.isNull( m_string ) )
+            m_string = Arrays.stream( m_terms ).map( Object::toString ).collect( Collectors.joining() );
+        return m_string;
+    }
+
+    @Override
+    public long lowdigest()
+    {
+        return m_lowdigest;
+    }
+
+    @Override
+    public long highdigest()
+    {
+        return m_highdigest;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.string();
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency.snapshot;
+
+import org.lightjason.agentspeak.language.ITerm;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.util.stream.Stream;
+
+
+/**
+ * immutable snapshot of the filtered terms of an agent
+ * in a canonical order
+ */
+public interface ISnapshot
+{
+
+    /**
+     * stream over the terms in canonical order
+     *
+     * @return term stream
+     */
+    @Nonnull
+    Stream<ITerm> stream();
+
+    /**
+     * term at a position in canonical order, so the
+     * terms can be iterated without a stream
+     *
+     * @param p_index position
+     * @return term
+     */
+    @Nonnull
+    ITerm get( @Nonnegative int p_index );
+
+    /**
+     * number of terms
+     *
+     * @return size
+     */
+    @Nonnegative
+    int size();
+
+    /**
+     * canonical byte encoding of the terms, each
+     * term is terminated by a separator byte
+     *
+     * @return read-only buffer
+     */
+    @Nonnull
+    ByteBuffer encoding();
+
+    /**
+     * canonical string of the terms, which
+     * joins the terms without a separator
+     *
+     * @return string
+     */
+    @Nonnull
+    String string();
+
+    /**
+     * low lane of the order-independent 128-bit digest of the distinct
+     * terms, the terms are identified by their string representation
+     *
+     * @return low digest lane
+     */
+    long lowdigest();
+
+    /**
+     * high lane of the order-independent 128-bit digest of the distinct
+     * terms, the terms are identified by their string representation
+     *
+     * @return high digest lane
+     */
+    long highdigest();
+
+    /**
+     * checks if two snapshots hold the same terms, the size and the
+     * digest are compared before the encoding, so different snapshots
+     * are rejected mostly without comparing the encoding
+     *
+     * @param p_first first snapshot
+     * @param p_second second snapshot
+     * @return equality flag
+     */
+    static boolean equal( @Nonnull final ISnapshot p_first, @Nonnull final ISnapshot p_second )
+    {
+        return p_first == p_second
+               || p_first.size() == p_second.size()
+                  && p_first.lowdigest() == p_second.lowdigest()
+                  && p_first.highdigest() == p_second.highdigest()
+                  && p_first.encoding().equals( p_second.encoding() );
+    }
+
+}
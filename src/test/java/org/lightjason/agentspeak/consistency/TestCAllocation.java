@@ -0,0 +1,299 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.lightjason.agentspeak.agent.IAgent;
+import org.lightjason.agentspeak.consistency.filter.IFilter;
+import org.lightjason.agentspeak.consistency.metric.CDiscreteDistance;
+import org.lightjason.agentspeak.consistency.metric.CLevenshteinDistance;
+import org.lightjason.agentspeak.consistency.metric.CSymmetricDifference;
+import org.lightjason.agentspeak.consistency.metric.CWeightedDifference;
+import org.lightjason.agentspeak.consistency.metric.IMetric;
+import org.lightjason.agentspeak.consistency.snapshot.CSnapshot;
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
+import org.lightjason.agentspeak.language.CLiteral;
+import org.lightjason.agentspeak.language.ITerm;
+import org.lightjason.agentspeak.testing.IBaseTest;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+/**
+ * allocation budget tests of the consistency hot path,
+ * the allocated bytes are measured on the calling thread,
+ * so the calculation runs without an executor, the budgets
+ * are the measured values of OpenJDK 17 plus about 10%
+ */
+public final class TestCAllocation extends IBaseTest
+{
+    /**
+     * number of warm-up runs before measuring
+     */
+    private static final int WARMUP = 2000;
+    /**
+     * number of measured runs
+     */
+    private static final int RUNS = 1000;
+    /**
+     * number of terms of a snapshot
+     */
+    private static final int TERMS = 32;
+    /**
+     * number of agents of a calculation
+     */
+    private static final int AGENTS = 32;
+    /**
+     * recorded budget of a metric calculation in bytes per pair, the
+     * discrete metric boxes the result only, the symmetric difference
+     * copies the first term stream into a set, the other metrics copy
+     * both term streams into collections
+     */
+    private static final Map<IMetric, Long> METRICBUDGET = Map.of(
+        new CSymmetricDifference(), 2000L,
+        new CDiscreteDistance(), 32L,
+        new CWeightedDifference(), 5888L,
+        new CLevenshteinDistance(), 4720L
+    );
+    /**
+     * recorded budget of a metric row in bytes per pair, the discrete
+     * metric compares digests only, the symmetric difference builds the
+     * term set of the first snapshot once per row and nothing per pair
+     */
+    private static final Map<IMetric, Long> ROWBUDGET = Map.of(
+        new CSymmetricDifference(), 40L,
+        new CDiscreteDistance(), 8L,
+        new CWeightedDifference(), 3450L,
+        new CLevenshteinDistance(), 140L
+    );
+    /**
+     * recorded budget of a calculation in bytes per agent pair
+     */
+    private static final long CALLBUDGET = 120L;
+    /**
+     * agent generator
+     */
+    private CAgentGenerator m_agentgenerator;
+    /**
+     * thread bean
+     */
+    private com.sun.management.ThreadMXBean m_bean;
+
+    /**
+     * test initialize
+     *
+     * @throws Exception on any parsing error
+     */
+    @Before
+    public void initialize() throws Exception
+    {
+        m_agentgenerator = new CAgentGenerator();
+
+        final ThreadMXBean l_bean = ManagementFactory.getThreadMXBean();
+        if ( l_bean instanceof com.sun.management.ThreadMXBean
+             && ( (com.sun.management.ThreadMXBean) l_bean ).isThreadAllocatedMemorySupported() )
+        {
+            m_bean = (com.sun.management.ThreadMXBean) l_bean;
+            m_bean.setThreadAllocatedMemoryEnabled( true );
+        }
+    }
+
+
+    /**
+     * test allocation of each metric per pair
+     */
+    @Test
+    public void metric()
+    {
+        Assume.assumeNotNull( m_bean );
+
+        final ISnapshot l_first = CSnapshot.of( IntStream.range( 0, TERMS ).mapToObj( i -> CLiteral.of( "belief" + i ) ) );
+        final ISnapshot l_second = CSnapshot.of( IntStream.range( TERMS / 2, TERMS + TERMS / 2 ).mapToObj( i -> CLiteral.of( "belief" + i ) ) );
+
+        METRICBUDGET.forEach( ( i, j ) ->
+        {
+            final long l_bytes = this.allocation( () -> i.apply( l_first, l_second ) );
+            Assert.assertTrue(
+                i.getClass().getSimpleName() + " allocates " + l_bytes + " bytes per pair, budget is " + j,
+                l_bytes <= j
+            );
+        } );
+    }
+
+
+    /**
+     * test allocation of each metric row per pair
+     */
+    @Test
+    public void row()
+    {
+        Assume.assumeNotNull( m_bean );
+
+        final ISnapshot[] l_snapshots = IntStream.range( 0, AGENTS )
+                                                 .mapToObj( i -> CSnapshot.of(
+                                                     IntStream.range( i, i + TERMS / 2 ).mapToObj( j -> CLiteral.of( "belief" + j ) )
+                                                 ) )
+                                                 .toArray( ISnapshot[]::new );
+        final double[] l_row = new double[l_snapshots.length];
+
+        ROWBUDGET.forEach( ( i, j ) ->
+        {
+            final long l_bytes = this.allocation( () -> i.row( l_snapshots[0], l_snapshots, 1, l_snapshots.length, l_row ) )
+                                 / ( l_snapshots.length - 1 );
+            Assert.assertTrue(
+                i.getClass().getSimpleName() + " row allocates " + l_bytes + " bytes per pair, budget is " + j,
+                l_bytes <= j
+            );
+        } );
+    }
+
+
+    /**
+     * test allocation of a calculation per pair, the snapshots are created
+     * once, so the filter of the beliefbase is not measured, the numerical
+     * algorithm is not tested, because the eigenvalue reduction runs on the
+     * common pool, which is not measured on the calling thread
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void call() throws Exception
+    {
+        Assume.assumeNotNull( m_bean );
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IAgent<?>[] l_agents = new IAgent<?>[AGENTS];
+        final Map<IAgent<?>, ISnapshot> l_snapshots = new HashMap<>();
+        for ( int i = 0; i < l_agents.length; i++ )
+        {
+            l_agents[i] = m_agentgenerator.generatesingle();
+            final IAgent<?> l_agent = l_agents[i];
+            IntStream.range( i, i + TERMS / 2 ).forEach( j -> l_agent.beliefbase().add( CLiteral.of( "belief" + j ) ) );
+            l_snapshots.put( l_agent, CMarkowChainConsistency.DEFAULTFILTER.snapshot( l_agent ) );
+        }
+
+        final IFilter l_filter = new IFilter()
+        {
+            @Override
+            public Stream<? extends ITerm> apply( @Nonnull final IAgent<?> p_agent )
+            {
+                return l_snapshots.get( p_agent ).stream();
+            }
+
+            @Nonnull
+            @Override
+            public ISnapshot snapshot( @Nonnull final IAgent<?> p_agent )
+            {
+                return l_snapshots.get( p_agent );
+            }
+        };
+
+        final long l_pairs = AGENTS * ( AGENTS - 1L ) / 2;
+        for ( final CMarkowChainConsistency.EAlgorithm l_algorithm : CMarkowChainConsistency.EAlgorithm.values() )
+        {
+            if ( l_algorithm == CMarkowChainConsistency.EAlgorithm.NUMERICAL )
+                continue;
+
+            final IConsistency l_consistency = new CMarkowChainConsistency(
+                l_algorithm,
+                l_filter,
+                new CSymmetricDifference(),
+                CMarkowChainConsistency.DEFAULTITERATION,
+                CMarkowChainConsistency.DEFAULTEPSILON
+            ).add( l_agents );
+
+            final long l_bytes = this.allocation( l_consistency::call, WARMUP / 100, RUNS / 100 ) / l_pairs;
+            Assert.assertTrue(
+                l_algorithm + " allocates " + l_bytes + " bytes per pair, budget is " + CALLBUDGET,
+                l_bytes <= CALLBUDGET
+            );
+        }
+    }
+
+
+    /**
+     * measures the mean allocated bytes of a call
+     *
+     * @param p_runnable call
+     * @return mean allocated bytes
+     */
+    @Nonnegative
+    private long allocation( @Nonnull final IAllocation p_runnable )
+    {
+        return this.allocation( p_runnable, WARMUP, RUNS );
+    }
+
+    /**
+     * measures the mean allocated bytes of a call
+     *
+     * @param p_runnable call
+     * @param p_warmup number of warm-up runs
+     * @param p_runs number of measured runs
+     * @return mean allocated bytes
+     */
+    @Nonnegative
+    private long allocation( @Nonnull final IAllocation p_runnable, @Nonnegative final int p_warmup, @Nonnegative final int p_runs )
+    {
+        try
+        {
+            for ( int i = 0; i < p_warmup; i++ )
+                p_runnable.run();
+
+            final long l_start = m_bean.getCurrentThreadAllocatedBytes();
+            for ( int i = 0; i < p_runs; i++ )
+                p_runnable.run();
+
+            return Math.max( 0, m_bean.getCurrentThreadAllocatedBytes() - l_start ) / p_runs;
+        }
+        catch ( final Exception l_exception )
+        {
+            throw new RuntimeException( l_exception );
+        }
+    }
+
+    /**
+     * measured call
+     */
+    @FunctionalInterface
+    private interface IAllocation
+    {
+        /**
+         * runs the call
+         *
+         * @throws Exception on any error
+         */
+        void run() throws Exception;
+    }
+
+}
@@ -23,17 +23,43 @@
 
 package org.lightjason.agentspeak.consistency;
 
+import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.lightjason.agentspeak.agent.IAgent;
+import org.lightjason.agentspeak.consistency.filter.IFilter;
+import org.lightjason.agentspeak.consistency.io.CBinaryReader;
+import org.lightjason.agentspeak.consistency.io.CBinaryWriter;
 import org.lightjason.agentspeak.consistency.metric.CDiscreteDistance;
+import org.lightjason.agentspeak.consistency.metric.CSymmetricDifference;
+import org.lightjason.agentspeak.consistency.metric.IMetric;
 import org.lightjason.agentspeak.language.CLiteral;
 import org.lightjason.agentspeak.testing.IBaseTest;
 
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -59,7 +85,6 @@ public final class TestCMarkowChainConsistency extends IBaseTest
         m_agentgenerator = new CAgentGenerator();
     }
 
-
     /**
      * test numeric consistency
      *
@@ -102,13 +127,13 @@ public final class TestCMarkowChainConsistency extends IBaseTest
 
 
         Assert.assertArrayEquals(
-            Stream.of( 0.5, 0.7240092377397959, 0.775990762260204 ).mapToDouble( i -> i ).toArray(),
+            Stream.of( 0.6666666666666666, 0.6666666666666666, 0.6666666666666666 ).mapToDouble( i -> i ).toArray(),
             l_consistency.consistency().mapToDouble( Map.Entry::getValue ).sorted().toArray(),
             0.01
         );
 
         Assert.assertArrayEquals(
-            Stream.of( 0.5, 0.7240092377397959, 0.775990762260204 ).mapToDouble( i -> i ).toArray(),
+            Stream.of( 0.6666666666666666, 0.6666666666666666, 0.6666666666666666 ).mapToDouble( i -> i ).toArray(),
             Stream.of(
                 l_consistency.consistency( l_agent1 ),
                 l_consistency.consistency( l_agent2 ),
@@ -119,13 +144,13 @@ public final class TestCMarkowChainConsistency extends IBaseTest
 
 
         Assert.assertArrayEquals(
-            Stream.of( 0.22400923773979595, 0.27599076226020414, 0.5 ).mapToDouble( i -> i ).toArray(),
+            Stream.of( 0.3333333333333333, 0.3333333333333333, 0.3333333333333333 ).mapToDouble( i -> i ).toArray(),
             l_consistency.inconsistency().mapToDouble( Map.Entry::getValue ).sorted().toArray(),
             0.01
         );
 
         Assert.assertArrayEquals(
-            Stream.of( 0.22400923773979595, 0.27599076226020414, 0.5 ).mapToDouble( i -> i ).toArray(),
+            Stream.of( 0.3333333333333333, 0.3333333333333333, 0.3333333333333333 ).mapToDouble( i -> i ).toArray(),
             Stream.of(
                 l_consistency.inconsistency( l_agent1 ),
                 l_consistency.inconsistency( l_agent2 ),
@@ -135,7 +160,6 @@ public final class TestCMarkowChainConsistency extends IBaseTest
         );
     }
 
-
     /**
      * test fixpoint consistency
      *
@@ -211,4 +235,983 @@ public final class TestCMarkowChainConsistency extends IBaseTest
         );
     }
 
+    /**
+     * test gauss-seidel consistency against the numeric consistency, the
+     * values must be equal within 1e-6 with the default iteration number,
+     * because the sweeps of gauss-seidel do not use the iteration number
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void gaussseidelnumeric() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IAgent<?>[] l_agents = IntStream.range( 0, 20 )
+                                              .mapToObj( i -> this.agent( i % 5, i % 5 + i % 3 + 2 ) )
+                                              .toArray( IAgent<?>[]::new );
+
+        final IConsistency l_numeric = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.NUMERICAL,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            CMarkowChainConsistency.DEFAULTITERATION,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).add( l_agents ).call();
+
+        final IConsistency l_gaussseidel = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.GAUSSSEIDEL,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            CMarkowChainConsistency.DEFAULTITERATION,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).add( l_agents ).call();
+
+        Assert.assertArrayEquals(
+            Arrays.stream( l_agents ).mapToDouble( l_numeric::consistency ).toArray(),
+            Arrays.stream( l_agents ).mapToDouble( l_gaussseidel::consistency ).toArray(),
+            1e-6
+        );
+
+        Assert.assertArrayEquals(
+            Arrays.stream( l_agents ).mapToDouble( l_numeric::inconsistency ).toArray(),
+            Arrays.stream( l_agents ).mapToDouble( l_gaussseidel::inconsistency ).toArray(),
+            1e-6
+        );
+    }
+
+    /**
+     * test top-k consistency and inconsistency
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void top() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IConsistency l_consistency = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.NUMERICAL,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CDiscreteDistance(),
+            CMarkowChainConsistency.DEFAULTITERATION,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).add(
+            IntStream.range( 0, 10 )
+                     .mapToObj( i -> this.agent( 0, i ) )
+        ).call();
+
+        Assert.assertArrayEquals(
+            l_consistency.consistency().mapToDouble( Map.Entry::getValue ).boxed().sorted( Comparator.reverseOrder() ).limit( 3 ).mapToDouble( i -> i ).toArray(),
+            l_consistency.topconsistent( 3 ).mapToDouble( Map.Entry::getValue ).toArray(),
+            0
+        );
+
+        Assert.assertArrayEquals(
+            l_consistency.inconsistency().mapToDouble( Map.Entry::getValue ).boxed().sorted( Comparator.reverseOrder() ).limit( 3 ).mapToDouble( i -> i ).toArray(),
+            l_consistency.topinconsistent( 3 ).mapToDouble( Map.Entry::getValue ).toArray(),
+            0
+        );
+
+        Assert.assertEquals( 10, l_consistency.topinconsistent( 50 ).count() );
+        Assert.assertEquals( 0, l_consistency.topinconsistent( 0 ).count() );
+    }
+
+    /**
+     * test incidence structure against the dense structure
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void incidence() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IAgent<?>[] l_agents = IntStream.range( 0, 10 )
+                                              .mapToObj( i -> this.agent( i, 2 * i + 3 ) )
+                                              .toArray( IAgent<?>[]::new );
+
+        Stream.of( CMarkowChainConsistency.EAlgorithm.values() ).forEach( i ->
+        {
+            final IConsistency l_dense = new CMarkowChainConsistency(
+                i,
+                CMarkowChainConsistency.EStructure.DENSE,
+                CMarkowChainConsistency.DEFAULTFILTER,
+                new CSymmetricDifference(),
+                100,
+                CMarkowChainConsistency.DEFAULTEPSILON
+            ).add( l_agents );
+
+            final IConsistency l_incidence = new CMarkowChainConsistency(
+                i,
+                CMarkowChainConsistency.EStructure.INCIDENCE,
+                CMarkowChainConsistency.DEFAULTFILTER,
+                new CSymmetricDifference(),
+                100,
+                CMarkowChainConsistency.DEFAULTEPSILON
+            ).add( l_agents );
+
+            try
+            {
+                l_dense.call();
+                l_incidence.call();
+            }
+            catch ( final Exception l_exception )
+            {
+                Assert.fail( l_exception.getMessage() );
+            }
+
+            Assert.assertArrayEquals(
+                i.name(),
+                Arrays.stream( l_agents ).mapToDouble( l_dense::consistency ).toArray(),
+                Arrays.stream( l_agents ).mapToDouble( l_incidence::consistency ).toArray(),
+                0.01
+            );
+        } );
+    }
+
+    /**
+     * test aggregation-disaggregation against the stationary distribution
+     * of a symmetric matrix, which is proportional to the row sums, the
+     * matrix holds the symmetric difference of belief ranges and has
+     * enough states for multiple aggregation levels
+     */
+    @Test
+    public void aggregation()
+    {
+        final double[][] l_matrix = new double[150][150];
+        for ( int i = 0; i < l_matrix.length; i++ )
+            for ( int j = 0; j < l_matrix.length; j++ )
+            {
+                final int l_firstfrom = i % 7;
+                final int l_firstto = l_firstfrom + i % 11 + 1;
+                final int l_secondfrom = j % 7;
+                final int l_secondto = l_secondfrom + j % 11 + 1;
+
+                l_matrix[i][j] = i == j
+                                 ? 0.0001
+                                 : l_firstto - l_firstfrom + l_secondto - l_secondfrom
+                                   - 2 * Math.max( 0, Math.min( l_firstto, l_secondto ) - Math.max( l_firstfrom, l_secondfrom ) );
+            }
+
+        final double[] l_rowsum = Arrays.stream( l_matrix ).mapToDouble( i -> Arrays.stream( i ).sum() ).toArray();
+        final double l_total = Arrays.stream( l_rowsum ).sum();
+
+        Assert.assertArrayEquals(
+            Arrays.stream( l_rowsum ).map( i -> i / l_total ).toArray(),
+            CMarkowChainConsistency.EAlgorithm.AGGREGATION.apply( 100, new DenseDoubleMatrix2D( l_matrix ), () -> false ).toArray(),
+            0.0001
+        );
+    }
+
+    /**
+     * test the runtime kernel against the scalar kernel, the
+     * test runs if the vector kernel is available only
+     */
+    @Test
+    public void kernel()
+    {
+        Assume.assumeFalse( IKernel.INSTANCE instanceof CScalarKernel );
+
+        final IKernel l_scalar = new CScalarKernel();
+        final Random l_random = new Random( 42 );
+        for ( final int l_size : new int[]{0, 1, 3, 8, 17, 1031} )
+        {
+            final double[] l_first = l_random.doubles( l_size, -1, 1 ).toArray();
+            final double[] l_second = l_random.doubles( l_size, -1, 1 ).toArray();
+
+            Assert.assertEquals( l_scalar.dot( l_first, l_second ), IKernel.INSTANCE.dot( l_first, l_second ), 1e-9 );
+            Assert.assertEquals( l_scalar.norm1( l_first ), IKernel.INSTANCE.norm1( l_first ), 1e-9 );
+
+            final double[] l_scalarscale = l_first.clone();
+            final double[] l_vectorscale = l_first.clone();
+            l_scalar.scale( l_scalarscale, 0.3 );
+            IKernel.INSTANCE.scale( l_vectorscale, 0.3 );
+            Assert.assertArrayEquals( l_scalarscale, l_vectorscale, 1e-12 );
+        }
+    }
+
+    /**
+     * test gauss-seidel against the numeric eigenvector of a matrix,
+     * the iteration value is not used by gauss-seidel
+     */
+    @Test
+    public void gaussseidel()
+    {
+        final double[][] l_matrix = {
+            {0.1, 1, 2, 0.5},
+            {1, 0.1, 3, 4},
+            {2, 3, 0.1, 1},
+            {0.5, 4, 1, 0.1}
+        };
+
+        Assert.assertArrayEquals(
+            CMarkowChainConsistency.EAlgorithm.NUMERICAL.apply( 1, new DenseDoubleMatrix2D( l_matrix ), () -> false ).toArray(),
+            CMarkowChainConsistency.EAlgorithm.GAUSSSEIDEL.apply( 1, new DenseDoubleMatrix2D( l_matrix ), () -> false ).toArray(),
+            1e-6
+        );
+    }
+
+    /**
+     * test landmark structure, with all agents as landmarks the approximation
+     * is exact, with less landmarks the relative error of the matrix against the
+     * dense matrix is bounded by the error estimation and the rows of the
+     * landmark agents are exact
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void landmark() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IAgent<?>[] l_agents = IntStream.range( 0, 10 )
+                                              .mapToObj( i -> this.agent( i, 2 * i + 3 ) )
+                                              .toArray( IAgent<?>[]::new );
+
+        final CMarkowChainConsistency l_dense = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).retain( true );
+        l_dense.add( l_agents ).call();
+
+        final CMarkowChainConsistency l_exact = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.EStructure.LANDMARK,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON,
+            l_agents.length
+        );
+        l_exact.add( l_agents ).call();
+
+        final CMarkowChainConsistency l_approximated = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.EStructure.LANDMARK,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON,
+            3
+        ).retain( true );
+        l_approximated.add( l_agents ).call();
+
+        Assert.assertArrayEquals(
+            Arrays.stream( l_agents ).mapToDouble( l_dense::consistency ).toArray(),
+            Arrays.stream( l_agents ).mapToDouble( l_exact::consistency ).toArray(),
+            0.01
+        );
+        Assert.assertEquals( 0, l_exact.error(), 0 );
+
+        // the diagonal is the epsilon slope, so only the metric values are compared
+        final Map<IAgent<?>, double[]> l_densematrix = l_dense.transition().collect( Collectors.toMap( Map.Entry::getKey, Map.Entry::getValue ) );
+        final IAgent<?>[] l_densekeys = l_dense.transition().map( Map.Entry::getKey ).toArray( IAgent<?>[]::new );
+        final IAgent<?>[] l_keys = l_approximated.transition().map( Map.Entry::getKey ).toArray( IAgent<?>[]::new );
+        final double[][] l_matrix = l_approximated.transition().map( Map.Entry::getValue ).toArray( double[][]::new );
+        Assert.assertEquals( l_agents.length, l_keys.length );
+
+        double l_difference = 0;
+        double l_sum = 0;
+        int l_exactrows = 0;
+        for ( int i = 0; i < l_keys.length; i++ )
+        {
+            boolean l_exactrow = true;
+            for ( int j = 0; j < l_keys.length; j++ )
+            {
+                if ( i == j )
+                    continue;
+
+                final double l_value = l_densematrix.get( l_keys[i] )[Arrays.asList( l_densekeys ).indexOf( l_keys[j] )];
+                l_difference += Math.abs( l_matrix[i][j] - l_value );
+                l_sum += l_matrix[i][j];
+                l_exactrow &= Math.abs( l_matrix[i][j] - l_value ) <= 1e-9;
+            }
+
+            // the first agent is the first landmark
+            if ( i == 0 )
+                Assert.assertTrue( l_exactrow );
+            l_exactrows += l_exactrow ? 1 : 0;
+        }
+
+        Assert.assertTrue( l_approximated.error() > 0 );
+        Assert.assertTrue( l_difference / l_sum <= l_approximated.error() + 1e-9 );
+        Assert.assertTrue( l_exactrows >= 3 );
+    }
+
+    /**
+     * test scheduler with multiple tenants
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void scheduler() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IConsistency[] l_consistencies = IntStream.range( 0, 6 )
+                                                        .mapToObj( i -> new CMarkowChainConsistency(
+                                                            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+                                                            CMarkowChainConsistency.DEFAULTFILTER,
+                                                            new CSymmetricDifference(),
+                                                            100,
+                                                            CMarkowChainConsistency.DEFAULTEPSILON
+                                                        ).add(
+                                                            IntStream.range( 0, 10 )
+                                                                     .mapToObj( j -> this.agent( j, 2 * j + i ) )
+                                                        ) )
+                                                        .toArray( IConsistency[]::new );
+
+        try ( final CScheduler l_scheduler = new CScheduler( 2, 100 ) )
+        {
+            final List<CompletableFuture<IConsistency>> l_futures = IntStream.range( 0, l_consistencies.length )
+                                                                             .mapToObj( i -> l_scheduler.submit( "tenant" + i % 3, i, l_consistencies[i] ) )
+                                                                             .collect( Collectors.toList() );
+
+            for ( int i = 0; i < l_futures.size(); i++ )
+                Assert.assertSame( l_consistencies[i], l_futures.get( i ).get( 1, TimeUnit.MINUTES ) );
+
+            Assert.assertEquals( 0, l_scheduler.queued() );
+            Assert.assertEquals( 0, l_scheduler.running() );
+            l_consistencies[0].consistency().forEach( i -> Assert.assertTrue( i.getValue() > 0 ) );
+        }
+    }
+
+    /**
+     * test the order of the scheduler, the calculation with the highest
+     * priority runs first and tenants with equal priority are served round-robin
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void schedulerorder() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final Set<String> l_order = Collections.synchronizedSet( new LinkedHashSet<>() );
+        final CountDownLatch l_started = new CountDownLatch( 1 );
+        final CountDownLatch l_release = new CountDownLatch( 1 );
+        final CountDownLatch l_free = new CountDownLatch( 0 );
+
+        try ( final CScheduler l_scheduler = new CScheduler( 1, 1000 ) )
+        {
+            final List<CompletableFuture<IConsistency>> l_futures = new ArrayList<>();
+            l_futures.add( l_scheduler.submit( "x", this.recorded( l_order, "x", l_started, l_release ) ) );
+            Assert.assertTrue( l_started.await( 10, TimeUnit.SECONDS ) );
+
+            l_futures.add( l_scheduler.submit( "a", 0, this.recorded( l_order, "a0", l_free, l_free ) ) );
+            l_futures.add( l_scheduler.submit( "a", 1, this.recorded( l_order, "a1", l_free, l_free ) ) );
+            l_futures.add( l_scheduler.submit( "b", 1, this.recorded( l_order, "b1", l_free, l_free ) ) );
+            l_futures.add( l_scheduler.submit( "b", 0, this.recorded( l_order, "b0", l_free, l_free ) ) );
+            l_futures.add( l_scheduler.submit( "c", 1, this.recorded( l_order, "c1", l_free, l_free ) ) );
+            Assert.assertEquals( 5, l_scheduler.queued() );
+
+            l_release.countDown();
+            for ( final CompletableFuture<IConsistency> i : l_futures )
+                i.get( 1, TimeUnit.MINUTES );
+
+            Assert.assertEquals( List.of( "x", "a1", "b1", "c1", "a0", "b0" ), new ArrayList<>( l_order ) );
+        }
+    }
+
+    /**
+     * test the budget of the scheduler, each calculation costs 100, so
+     * only one calculation fits into the budget, a cancelled calculation
+     * holds its slot until the calculation body exits
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void schedulerbudget() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final Set<String> l_order = Collections.synchronizedSet( new LinkedHashSet<>() );
+        final CountDownLatch l_started = new CountDownLatch( 1 );
+        final CountDownLatch l_release = new CountDownLatch( 1 );
+        final CountDownLatch l_free = new CountDownLatch( 0 );
+
+        try ( final CScheduler l_scheduler = new CScheduler( 2, 150 ) )
+        {
+            final CompletableFuture<IConsistency> l_first = l_scheduler.submit( "a", this.recorded( l_order, "a", l_started, l_release ) );
+            Assert.assertTrue( l_started.await( 10, TimeUnit.SECONDS ) );
+
+            final CompletableFuture<IConsistency> l_second = l_scheduler.submit( "b", this.recorded( l_order, "b", l_free, l_free ) );
+            Assert.assertEquals( 1, l_scheduler.running() );
+            Assert.assertEquals( 1, l_scheduler.queued() );
+
+            l_first.cancel( false );
+            Assert.assertEquals( 1, l_scheduler.running() );
+            Assert.assertEquals( 1, l_scheduler.queued() );
+
+            l_release.countDown();
+            l_second.get( 1, TimeUnit.MINUTES );
+            Assert.assertEquals( List.of( "a", "b" ), new ArrayList<>( l_order ) );
+        }
+    }
+
+    /**
+     * test that submissions of the same consistency
+     * run one after another with free workers
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void schedulerserial() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final CountDownLatch l_started = new CountDownLatch( 1 );
+        final CountDownLatch l_release = new CountDownLatch( 1 );
+        final IConsistency l_consistency = this.recorded( Collections.synchronizedSet( new LinkedHashSet<>() ), "a", l_started, l_release );
+
+        try ( final CScheduler l_scheduler = new CScheduler( 2, 1000 ) )
+        {
+            final CompletableFuture<IConsistency> l_first = l_scheduler.submit( "a", l_consistency );
+            Assert.assertTrue( l_started.await( 10, TimeUnit.SECONDS ) );
+
+            final CompletableFuture<IConsistency> l_second = l_scheduler.submit( "b", l_consistency );
+            Assert.assertEquals( 1, l_scheduler.running() );
+            Assert.assertEquals( 1, l_scheduler.queued() );
+
+            l_release.countDown();
+            Assert.assertSame( l_consistency, l_first.get( 1, TimeUnit.MINUTES ) );
+            Assert.assertSame( l_consistency, l_second.get( 1, TimeUnit.MINUTES ) );
+        }
+    }
+
+    /**
+     * test that closing the scheduler completes the futures
+     * of the running and queued calculations
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void schedulerclose() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final CountDownLatch l_started = new CountDownLatch( 1 );
+        final CountDownLatch l_release = new CountDownLatch( 1 );
+        final IConsistency l_running = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            i ->
+            {
+                gate( l_started, l_release );
+                return CMarkowChainConsistency.DEFAULTFILTER.apply( i );
+            },
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).add( IntStream.range( 0, 10 ).mapToObj( i -> this.agent( i, 2 * i + 3 ) ) );
+        Assert.assertEquals( 10, l_running.size() );
+
+        final CScheduler l_scheduler = new CScheduler( 1, 1000 );
+        try
+        {
+            final CompletableFuture<IConsistency> l_first = l_scheduler.submit( "tenant", l_running );
+            Assert.assertTrue( l_started.await( 10, TimeUnit.SECONDS ) );
+
+            l_scheduler.submit( "tenant", l_running ).cancel( false );
+            Assert.assertEquals( 0, l_scheduler.queued() );
+
+            final CompletableFuture<IConsistency> l_second = l_scheduler.submit( "tenant", l_running );
+            Assert.assertEquals( 1, l_scheduler.queued() );
+
+            l_scheduler.close();
+            Assert.assertTrue( l_first.isCancelled() );
+            Assert.assertTrue( l_second.isCancelled() );
+            Assert.assertEquals( 0, l_scheduler.queued() );
+        }
+        finally
+        {
+            l_release.countDown();
+            l_scheduler.close();
+        }
+    }
+
+    /**
+     * test time-budgeted calculation
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void anytime() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IAgent<?>[] l_agents = IntStream.range( 0, 10 )
+                                              .mapToObj( i -> this.agent( i, 2 * i + 3 ) )
+                                              .toArray( IAgent<?>[]::new );
+
+        final IConsistency l_exact = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).add( l_agents ).call();
+
+        final CMarkowChainConsistency l_anytime = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        );
+        l_anytime.add( l_agents );
+
+        l_anytime.call( 0, TimeUnit.NANOSECONDS );
+        Assert.assertTrue( l_anytime.quality() < 1 );
+
+        l_anytime.call( 1, TimeUnit.MINUTES );
+        Assert.assertEquals( 1, l_anytime.quality(), 0 );
+        Assert.assertArrayEquals(
+            Arrays.stream( l_agents ).mapToDouble( l_exact::consistency ).toArray(),
+            Arrays.stream( l_agents ).mapToDouble( l_anytime::consistency ).toArray(),
+            0.01
+        );
+
+        // unchanged agents reuse all values
+        l_anytime.call( 0, TimeUnit.NANOSECONDS );
+        Assert.assertEquals( 1, l_anytime.quality(), 0 );
+    }
+
+    /**
+     * test binary export and import
+     *
+     * @throws Exception is thrown on agent generating or io error
+     */
+    @Test
+    public void binary() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final List<IAgent<?>> l_agents = IntStream.range( 0, 10 )
+                                                  .mapToObj( i -> this.agent( i, 2 * i + 3 ) )
+                                                  .collect( Collectors.toList() );
+
+        final CMarkowChainConsistency l_consistency = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).retain( true );
+        l_consistency.add( l_agents.stream() ).call();
+
+        final Path l_path = Files.createTempFile( "consistency", ".bin" );
+        l_path.toFile().deleteOnExit();
+        CBinaryWriter.write( l_path, l_consistency, l_agents::indexOf, l_consistency.transition() );
+
+        final CBinaryReader l_reader = CBinaryReader.of( l_path );
+        Assert.assertEquals( l_agents.size(), l_reader.size() );
+        Assert.assertEquals( l_agents.size() * l_agents.size(), l_reader.transition().remaining() );
+        Assert.assertEquals( l_consistency.statistic().getMean(), l_reader.mean(), 0 );
+
+        final LongBuffer l_identifiers = l_reader.identifiers();
+        final DoubleBuffer l_values = l_reader.consistency();
+        while ( l_identifiers.hasRemaining() )
+            Assert.assertEquals( l_consistency.consistency( l_agents.get( (int) l_identifiers.get() ) ), l_values.get(), 0 );
+    }
+
+    /**
+     * test workload recording and replay
+     *
+     * @throws Exception is thrown on agent generating or io error
+     */
+    @Test
+    public void workload() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final CWorkloadRecorder l_recorder = new CWorkloadRecorder();
+        final CMarkowChainConsistency l_consistency = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            l_recorder.filter( CMarkowChainConsistency.DEFAULTFILTER ),
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        );
+
+        l_consistency.add(
+            IntStream.range( 0, 10 )
+                     .mapToObj( i -> this.agent( i, 2 * i + 3 ) )
+        ).call();
+        Assert.assertEquals( 10, l_recorder.size() );
+
+        final Path l_path = Files.createTempFile( "workload", ".bin" );
+        l_path.toFile().deleteOnExit();
+        l_recorder.write( l_path );
+
+        final CWorkloadReplay l_replay = CWorkloadReplay.of( l_path );
+        Assert.assertEquals( 10, l_replay.size() );
+        Assert.assertEquals(
+            l_consistency.statistic().getMax(),
+            l_replay.solve( l_consistency ).getMaxLocation()[0],
+            0.01
+        );
+
+        final long[] l_duration = l_replay.replay( l_consistency );
+        Assert.assertEquals( 2, l_duration.length );
+        Assert.assertTrue( l_duration[0] >= 0 && l_duration[1] >= 0 );
+    }
+
+    /**
+     * test collapse of equal agents
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void collapse() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IAgent<?>[] l_agents = IntStream.range( 0, 8 )
+                                              .mapToObj( i -> this.agent( i % 3, i % 3 + 2 * ( i % 3 ) + 2 ) )
+                                              .toArray( IAgent<?>[]::new );
+
+        for ( final CMarkowChainConsistency.EAlgorithm l_algorithm : CMarkowChainConsistency.EAlgorithm.values() )
+        {
+            final IConsistency l_exact = new CMarkowChainConsistency(
+                l_algorithm,
+                CMarkowChainConsistency.DEFAULTFILTER,
+                new CSymmetricDifference(),
+                100,
+                CMarkowChainConsistency.DEFAULTEPSILON
+            ).add( l_agents ).call();
+
+            final IConsistency l_collapsed = new CMarkowChainConsistency(
+                l_algorithm,
+                CMarkowChainConsistency.DEFAULTFILTER,
+                new CSymmetricDifference(),
+                100,
+                CMarkowChainConsistency.DEFAULTEPSILON
+            ).collapse( true ).add( l_agents ).call();
+
+            Assert.assertArrayEquals(
+                l_algorithm.toString(),
+                Arrays.stream( l_agents ).mapToDouble( l_exact::consistency ).toArray(),
+                Arrays.stream( l_agents ).mapToDouble( l_collapsed::consistency ).toArray(),
+                0.01
+            );
+        }
+    }
+
+    /**
+     * test change listener
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void listener() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IAgent<?>[] l_agents = IntStream.range( 0, 4 )
+                                              .mapToObj( i -> this.agent( i, 2 * i + 2 ) )
+                                              .toArray( IAgent<?>[]::new );
+
+        final List<Map<IAgent<?>, Double>> l_changes = new ArrayList<>();
+        final List<Map<IAgent<?>, Double>> l_crossings = new ArrayList<>();
+        final IConsistency l_consistency = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).add( l_agents )
+         .listen( ( i, j ) -> l_changes.add( j ), 0.001 )
+         .listen( ( i, j ) -> l_crossings.add( j ), 1, 0.9 );
+
+        l_consistency.call();
+        Assert.assertEquals( 1, l_changes.size() );
+        Assert.assertEquals( l_agents.length, l_changes.get( 0 ).size() );
+        l_changes.get( 0 ).forEach( ( i, j ) -> Assert.assertEquals( l_consistency.consistency( i ), j, 0 ) );
+        Assert.assertEquals( Arrays.stream( l_agents ).filter( i -> l_consistency.consistency( i ) < 0.9 ).count(), l_crossings.get( 0 ).size() );
+
+        l_consistency.call();
+        Assert.assertEquals( 2, l_changes.size() );
+        Assert.assertTrue( l_changes.get( 1 ).isEmpty() );
+        Assert.assertTrue( l_crossings.get( 1 ).isEmpty() );
+    }
+
+    /**
+     * test primitive bulk export
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void bulk() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IConsistency l_consistency = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        );
+        Assert.assertEquals( 0, l_consistency.agents().length );
+
+        l_consistency.add(
+            IntStream.range( 0, 5 )
+                     .mapToObj( i -> this.agent( i, 2 * i + 2 ) )
+        ).call();
+
+        final IAgent<?>[] l_agents = l_consistency.agents();
+        final double[] l_values = new double[l_agents.length];
+        final DoubleBuffer l_buffer = DoubleBuffer.allocate( l_agents.length );
+        Assert.assertEquals( 5, l_consistency.consistency( l_values ) );
+        Assert.assertEquals( 5, l_consistency.inconsistency( l_buffer ) );
+
+        for ( int i = 0; i < l_agents.length; i++ )
+        {
+            Assert.assertEquals( l_consistency.consistency( l_agents[i] ), l_values[i], 0 );
+            Assert.assertEquals( l_consistency.inconsistency( l_agents[i] ), l_buffer.get( i ), 0 );
+        }
+
+        final double[] l_consistencies = new double[l_agents.length];
+        final double[] l_inconsistencies = new double[l_agents.length];
+        Assert.assertArrayEquals( l_agents, l_consistency.result( l_consistencies, l_inconsistencies ) );
+        Assert.assertArrayEquals( l_values, l_consistencies, 0 );
+        Assert.assertArrayEquals( l_buffer.array(), l_inconsistencies, 0 );
+
+        final DoubleBuffer l_short = DoubleBuffer.allocate( l_agents.length - 1 );
+        rejected( () -> l_consistency.consistency( l_short ) );
+        Assert.assertEquals( 0, l_short.position() );
+        rejected( () -> l_consistency.consistency( new double[l_agents.length - 1] ) );
+        rejected( () -> l_consistency.result( l_consistencies, new double[1] ) );
+    }
+
+    /**
+     * checks that a bulk accessor rejects a short target
+     *
+     * @param p_accessor accessor call
+     */
+    private static void rejected( final Runnable p_accessor )
+    {
+        try
+        {
+            p_accessor.run();
+            Assert.fail( "short target is not rejected" );
+        }
+        catch ( final IllegalArgumentException l_exception )
+        {
+            Assert.assertNotNull( l_exception.getMessage() );
+        }
+    }
+
+    /**
+     * test cancellation of the asynchronous calculation during the filter
+     * phase and the matrix rows, and of the algorithm iterations
+     *
+     * @throws Exception is thrown on agent generating or execution error
+     */
+    @Test
+    public void cancellation() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IAgent<?>[] l_agents = IntStream.range( 0, 10 )
+                                              .mapToObj( i -> this.agent( i, 2 * i + 3 ) )
+                                              .toArray( IAgent<?>[]::new );
+
+        for ( final boolean l_filterstage : new boolean[]{true, false} )
+        {
+            final CountDownLatch l_started = new CountDownLatch( 1 );
+            final CountDownLatch l_release = new CountDownLatch( 1 );
+            final IMetric l_symmetricdifference = new CSymmetricDifference();
+
+            final IFilter l_filter = l_filterstage
+                                     ? i ->
+                                     {
+                                         gate( l_started, l_release );
+                                         return CMarkowChainConsistency.DEFAULTFILTER.apply( i );
+                                     }
+                                     : CMarkowChainConsistency.DEFAULTFILTER;
+            final IMetric l_metric = l_filterstage
+                                     ? l_symmetricdifference
+                                     : ( i, j ) ->
+                                     {
+                                         gate( l_started, l_release );
+                                         return l_symmetricdifference.apply( i, j );
+                                     };
+
+            final CMarkowChainConsistency l_consistency = new CMarkowChainConsistency(
+                CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+                l_filter,
+                l_metric,
+                100,
+                CMarkowChainConsistency.DEFAULTEPSILON
+            );
+            l_consistency.add( l_agents );
+            final Map<IAgent<?>, Double> l_before = l_consistency.consistency().collect( Collectors.toMap( Map.Entry::getKey, Map.Entry::getValue ) );
+
+            final ExecutorService l_executor = Executors.newFixedThreadPool( 2 );
+            final CompletableFuture<IConsistency> l_future = l_consistency.async( l_executor );
+            Assert.assertTrue( l_started.await( 10, TimeUnit.SECONDS ) );
+            l_future.cancel( true );
+            l_release.countDown();
+
+            l_executor.shutdown();
+            Assert.assertTrue( l_executor.awaitTermination( 10, TimeUnit.SECONDS ) );
+
+            try
+            {
+                l_future.join();
+                Assert.fail( "calculation is not cancelled" );
+            }
+            catch ( final CancellationException l_exception )
+            {
+                Assert.assertTrue( l_future.isCancelled() );
+            }
+
+            Assert.assertEquals( l_before, l_consistency.consistency().collect( Collectors.toMap( Map.Entry::getKey, Map.Entry::getValue ) ) );
+            Assert.assertEquals( 0, l_consistency.statistic().getN() );
+        }
+
+        final AtomicInteger l_iteration = new AtomicInteger();
+        try
+        {
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT.apply(
+                100,
+                new DenseDoubleMatrix2D( new double[][]{{0, 1, 2}, {1, 0, 3}, {2, 3, 0}} ),
+                () -> l_iteration.incrementAndGet() > 2
+            );
+            Assert.fail( "iteration is not cancelled" );
+        }
+        catch ( final CancellationException l_exception )
+        {
+            Assert.assertTrue( l_iteration.get() > 2 );
+        }
+    }
+
+    /**
+     * test cutoff of the metric values
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void cutoff() throws Exception
+    {
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final IAgent<?>[] l_agents = IntStream.range( 0, 10 )
+                                              .mapToObj( i -> this.agent( i, 2 * i + 3 ) )
+                                              .toArray( IAgent<?>[]::new );
+
+        final IConsistency l_exact = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).add( l_agents ).call();
+
+        final IConsistency l_unbounded = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).cutoff( 1000 ).add( l_agents ).call();
+
+        Assert.assertArrayEquals(
+            Arrays.stream( l_agents ).mapToDouble( l_exact::consistency ).toArray(),
+            Arrays.stream( l_agents ).mapToDouble( l_unbounded::consistency ).toArray(),
+            0
+        );
+
+        final CMarkowChainConsistency l_bounded = new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).cutoff( 5 ).retain( true );
+        l_bounded.add( l_agents ).call();
+
+        Assert.assertTrue( l_bounded.transition().flatMapToDouble( i -> Arrays.stream( i.getValue() ) ).allMatch( i -> i <= 5 ) );
+        Assert.assertTrue( l_bounded.transition().flatMapToDouble( i -> Arrays.stream( i.getValue() ) ).anyMatch( i -> i == 5 ) );
+    }
+
+    /**
+     * test invalid cutoff
+     */
+    @Test( expected = IllegalArgumentException.class )
+    public void invalidcutoff()
+    {
+        new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).cutoff( -1 );
+    }
+
+    /**
+     * signals the start and blocks until the release
+     *
+     * @param p_started start latch
+     * @param p_release release latch
+     */
+    private static void gate( final CountDownLatch p_started, final CountDownLatch p_release )
+    {
+        p_started.countDown();
+        try
+        {
+            p_release.await();
+        }
+        catch ( final InterruptedException l_exception )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * creates a consistency, which records its name and passes
+     * the gate on the filtering of each agent
+     *
+     * @param p_order recorded names
+     * @param p_name name
+     * @param p_started start latch
+     * @param p_release release latch
+     * @return consistency with 10 agents
+     */
+    private IConsistency recorded( final Set<String> p_order, final String p_name, final CountDownLatch p_started, final CountDownLatch p_release )
+    {
+        return new CMarkowChainConsistency(
+            CMarkowChainConsistency.EAlgorithm.FIXPOINT,
+            i ->
+            {
+                p_order.add( p_name );
+                gate( p_started, p_release );
+                return CMarkowChainConsistency.DEFAULTFILTER.apply( i );
+            },
+            new CSymmetricDifference(),
+            100,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).add( IntStream.range( 0, 10 ).mapToObj( i -> this.agent( i, 2 * i + 3 ) ) );
+    }
+
+    /**
+     * generates an agent with the beliefs "belief" + j for j in [from, to)
+     *
+     * @param p_from first belief index (inclusive)
+     * @param p_to last belief index (exclusive)
+     * @return agent
+     */
+    private IAgent<?> agent( final int p_from, final int p_to )
+    {
+        final IAgent<?> l_agent = m_agentgenerator.generatesingle();
+        IntStream.range( p_from, p_to ).forEach( i -> l_agent.beliefbase().add( CLiteral.of( "belief" + i ) ) );
+        return l_agent;
+    }
+
 }
@@ -36,17 +36,25 @@ import org.lightjason.agentspeak.beliefbase.view.IViewGenerator;
 import org.lightjason.agentspeak.common.CPath;
 import org.lightjason.agentspeak.consistency.filter.CAllFilter;
 import org.lightjason.agentspeak.consistency.filter.CBeliefFilter;
+import org.lightjason.agentspeak.consistency.filter.CDeltaBeliefFilter;
 import org.lightjason.agentspeak.consistency.filter.CPlanFilter;
+import org.lightjason.agentspeak.consistency.filter.CProjectionFilter;
+import org.lightjason.agentspeak.consistency.filter.EProjection;
 import org.lightjason.agentspeak.consistency.filter.IFilter;
+import org.lightjason.agentspeak.consistency.metric.CCompositeMetric;
 import org.lightjason.agentspeak.consistency.metric.CDiscreteDistance;
 import org.lightjason.agentspeak.consistency.metric.CLevenshteinDistance;
 import org.lightjason.agentspeak.consistency.metric.CNCD;
 import org.lightjason.agentspeak.consistency.metric.CSymmetricDifference;
 import org.lightjason.agentspeak.consistency.metric.CWeightedDifference;
+import org.lightjason.agentspeak.consistency.metric.IBoundedMetric;
 import org.lightjason.agentspeak.consistency.metric.IMetric;
+import org.lightjason.agentspeak.consistency.snapshot.CSnapshot;
+import org.lightjason.agentspeak.consistency.snapshot.ISnapshot;
 import org.lightjason.agentspeak.language.CLiteral;
 import org.lightjason.agentspeak.language.CRawTerm;
 import org.lightjason.agentspeak.language.ILiteral;
+import org.lightjason.agentspeak.language.ITerm;
 import org.lightjason.agentspeak.language.execution.IExecution;
 import org.lightjason.agentspeak.language.execution.instantiable.plan.CPlan;
 import org.lightjason.agentspeak.language.execution.instantiable.plan.annotation.IAnnotation;
@@ -56,6 +64,7 @@ import org.lightjason.agentspeak.language.execution.instantiable.plan.trigger.IT
 import org.lightjason.agentspeak.testing.IBaseTest;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -333,6 +342,29 @@ public final class TestCMetricFilter extends IBaseTest
         );
     }
 
+
+    /**
+     * test composite metric
+     */
+    @Test
+    public void compositeinequality()
+    {
+        Assumptions.assumeTrue( Objects.nonNull( m_agentgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_viewgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_literals ) );
+        Assumptions.assumeFalse( m_literals.isEmpty(), ASSUMEMESSAGE );
+
+        this.check(
+            "composite difference inequality",
+            new CAllFilter(),
+            new CCompositeMetric( new double[]{2, 0.5}, new CSymmetricDifference(), new CLevenshteinDistance() ),
+            m_literals,
+            Stream.concat( m_literals.stream(), Stream.of( CLiteral.of( "levenshtein" ) ) ).collect( Collectors.toSet() ),
+            2 + 6.5, 0
+        );
+    }
+
+
     /**
      * test filter
      *
@@ -418,6 +450,324 @@ public final class TestCMetricFilter extends IBaseTest
     }
 
 
+
+    /**
+     * test projection filter
+     */
+    @Test
+    public void projectionfilter()
+    {
+        Assumptions.assumeTrue( Objects.nonNull( m_agentgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_viewgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_literals ) );
+        Assumptions.assumeFalse( m_literals.isEmpty(), ASSUMEMESSAGE );
+
+        final IAgent<?> l_agent = this.agent(
+            Stream.concat(
+                m_literals.stream(),
+                Stream.of(
+                    CLiteral.of( FIRSTSUB1, CRawTerm.of( 1 ), CRawTerm.of( 1 ) ),
+                    CLiteral.of( FIRSTSUB1, CRawTerm.of( 1 ), CRawTerm.of( 2 ) ),
+                    CLiteral.of( FIRSTSUB1, CRawTerm.of( 3 ), CRawTerm.of( 2 ) )
+                )
+            ).collect( Collectors.toSet() )
+        );
+        final IFilter l_filter = new CBeliefFilter( CPath.of( FIRSTSUB1 ) );
+
+        Assert.assertEquals( 4, new CProjectionFilter( l_filter, EProjection.NONE ).apply( l_agent ).count() );
+        Assert.assertEquals( 1, new CProjectionFilter( l_filter, EProjection.FUNCTOR ).apply( l_agent ).count() );
+        Assert.assertEquals( 4, new CProjectionFilter( l_filter, EProjection.FUNCTOR, false ).apply( l_agent ).count() );
+        Assert.assertEquals( 2, new CProjectionFilter( l_filter, EProjection.ARITY ).apply( l_agent ).count() );
+        Assert.assertEquals( 3, new CProjectionFilter( l_filter, true, 0 ).apply( l_agent ).count() );
+        Assert.assertEquals( 3, new CProjectionFilter( l_filter, true, 1 ).apply( l_agent ).count() );
+    }
+
+
+    /**
+     * test delta belief filter
+     */
+    @Test
+    public void deltafilter()
+    {
+        Assumptions.assumeTrue( Objects.nonNull( m_agentgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_viewgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_literals ) );
+        Assumptions.assumeFalse( m_literals.isEmpty(), ASSUMEMESSAGE );
+
+        final IAgent<?> l_agent = this.agent( m_literals );
+        final CDeltaBeliefFilter l_filter = new CDeltaBeliefFilter();
+
+        Assert.assertEquals( new CBeliefFilter().apply( l_agent ).count(), l_filter.apply( l_agent ).count() );
+        final long l_revision = l_filter.revision( l_agent );
+
+        final ILiteral l_literal = CLiteral.of( "delta" );
+        l_filter.add( l_agent, l_literal );
+        Assert.assertTrue( l_filter.changed( l_agent, l_revision ) );
+        Assert.assertEquals( m_literals.size() + 1, l_filter.apply( l_agent ).count() );
+
+        l_filter.remove( l_agent, l_literal );
+        Assert.assertEquals( m_literals.size(), l_filter.apply( l_agent ).count() );
+
+        final ISnapshot l_snapshot = l_filter.snapshot( l_agent );
+        Assert.assertSame( l_snapshot, l_filter.snapshot( l_agent ) );
+        l_filter.add( l_agent, l_literal );
+        Assert.assertEquals( m_literals.size() + 1, l_filter.snapshot( l_agent ).size() );
+
+        final IAgent<?> l_other = this.agent( m_literals );
+        l_filter.add( l_other, l_literal );
+        Assert.assertEquals( m_literals.size() + 1, l_filter.apply( l_other ).count() );
+
+        final IAgent<?> l_unknown = this.agent( m_literals );
+        Assert.assertEquals( 0, l_filter.revision( l_unknown ) );
+        l_unknown.beliefbase().add( l_literal );
+        Assert.assertEquals( m_literals.size() + 1, l_filter.apply( l_unknown ).count() );
+
+        final CDeltaBeliefFilter l_pathfilter = new CDeltaBeliefFilter( CPath.of( FIRSTSUB1 ) );
+        Assert.assertArrayEquals(
+            new CBeliefFilter( CPath.of( FIRSTSUB1 ) ).apply( l_agent ).map( Object::toString ).sorted().toArray(),
+            l_pathfilter.apply( l_agent ).map( Object::toString ).sorted().toArray()
+        );
+
+        final long l_count = l_pathfilter.apply( l_agent ).count();
+        l_pathfilter.add( l_agent, CLiteral.of( FIRSTSUB1 + "/deeper" ) );
+        Assert.assertEquals( l_count, l_pathfilter.apply( l_agent ).count() );
+        l_pathfilter.add( l_agent, CLiteral.of( FIRSTSUB1, CRawTerm.of( 5 ) ) );
+        Assert.assertEquals( l_count + 1, l_pathfilter.apply( l_agent ).count() );
+    }
+
+
+
+    /**
+     * test canonical snapshot encoding
+     */
+    @Test
+    public void snapshot()
+    {
+        Assumptions.assumeTrue( Objects.nonNull( m_agentgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_viewgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_literals ) );
+        Assumptions.assumeFalse( m_literals.isEmpty(), ASSUMEMESSAGE );
+
+        final IFilter l_filter = new CAllFilter();
+        final ISnapshot l_first = l_filter.snapshot( this.agent( m_literals ) );
+        final ISnapshot l_second = l_filter.snapshot(
+            this.agent( Stream.concat( m_literals.stream(), Stream.of( CLiteral.of( "levenshtein" ) ) ).collect( Collectors.toSet() ) )
+        );
+
+        Assert.assertEquals( m_literals.size(), l_first.size() );
+        Assert.assertEquals( l_first.string(), CSnapshot.of( l_first.stream().sorted( Comparator.comparing( ITerm::toString ).reversed() ) ).string() );
+        Assert.assertEquals( l_first.string().length() + l_first.size(), l_first.encoding().remaining() );
+
+        Assert.assertEquals( 0, new CLevenshteinDistance().apply( l_first, l_first ).doubleValue(), 0 );
+        Assert.assertEquals( 13, new CLevenshteinDistance().apply( l_first, l_second ).doubleValue(), 0 );
+        Assert.assertEquals( 0, new CNCD().apply( l_first, l_first ).doubleValue(), 0 );
+    }
+
+
+
+    /**
+     * test bounded metrics
+     */
+    @Test
+    public void boundedmetric()
+    {
+        Assumptions.assumeTrue( Objects.nonNull( m_agentgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_viewgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_literals ) );
+        Assumptions.assumeFalse( m_literals.isEmpty(), ASSUMEMESSAGE );
+
+        final IFilter l_filter = new CAllFilter();
+        final ISnapshot l_first = l_filter.snapshot( this.agent( m_literals ) );
+        final ISnapshot l_second = l_filter.snapshot(
+            this.agent( Stream.of( CLiteral.of( "ncd" ), CLiteral.of( "xxx" ), CLiteral.of( "opq" ) ).collect( Collectors.toSet() ) )
+        );
+
+        Stream.of( new CLevenshteinDistance(), new CSymmetricDifference() ).forEach( i ->
+        {
+            final double l_exact = i.apply( l_first, l_second ).doubleValue();
+            Assert.assertEquals( l_exact, i.apply( l_first, l_second, l_exact ), 0 );
+            Assert.assertTrue( IBoundedMetric.exceeds( i.apply( l_first, l_second, l_exact / 2 ), l_exact / 2 ) );
+            Assert.assertTrue( i.apply( l_first, l_second, l_exact / 2 ) <= l_exact );
+        } );
+    }
+
+
+    /**
+     * test shared snapshot registry
+     */
+    @Test
+    public void snapshotregistry()
+    {
+        Assumptions.assumeTrue( Objects.nonNull( m_agentgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_viewgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_literals ) );
+        Assumptions.assumeFalse( m_literals.isEmpty(), ASSUMEMESSAGE );
+
+        final IFilter l_original = new CAllFilter();
+        final IAgent<?> l_agent = this.agent( m_literals );
+        final CSnapshotRegistry l_registry = new CSnapshotRegistry();
+
+        final IFilter l_first = l_registry.attach( l_original );
+        final IFilter l_second = l_registry.attach( l_original );
+        Assert.assertSame( l_first, l_second );
+
+        final ISnapshot l_snapshot = l_first.snapshot( l_agent );
+        Assert.assertSame( l_snapshot, l_second.snapshot( l_agent ) );
+        Assert.assertEquals( l_original.snapshot( l_agent ).string(), l_snapshot.string() );
+        Assert.assertEquals( 1, l_registry.size() );
+
+        l_registry.cycle();
+        Assert.assertEquals( 0, l_registry.size() );
+        Assert.assertNotSame( l_snapshot, l_first.snapshot( l_agent ) );
+
+        final IMetric l_metric = l_registry.attach( new CSymmetricDifference() );
+        Assert.assertEquals( 0, l_metric.apply( l_snapshot, l_snapshot ).doubleValue(), 0 );
+        Assert.assertEquals( 0, l_registry.pairs() );
+        l_registry.detach( l_metric );
+
+        l_registry.detach( l_original );
+        Assert.assertEquals( 1, l_registry.size() );
+        l_registry.detach( l_first );
+        Assert.assertEquals( 0, l_registry.size() );
+    }
+
+
+    /**
+     * test bounded metric value cache of the snapshot registry
+     */
+    @Test
+    public void snapshotregistrycache()
+    {
+        Assumptions.assumeTrue( Objects.nonNull( m_agentgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_viewgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_literals ) );
+        Assumptions.assumeFalse( m_literals.isEmpty(), ASSUMEMESSAGE );
+
+        final IMetric l_original = new CSymmetricDifference();
+        final IFilter l_filter = new CAllFilter();
+        final ISnapshot[] l_snapshots = {
+            l_filter.snapshot( this.agent( m_literals ) ),
+            l_filter.snapshot( this.agent( Stream.of( CLiteral.of( "ncd" ), CLiteral.of( "xxx" ) ).collect( Collectors.toSet() ) ) ),
+            l_filter.snapshot( this.agent( Stream.of( CLiteral.of( "toplevel" ), CLiteral.of( "opq" ) ).collect( Collectors.toSet() ) ) )
+        };
+
+        final CSnapshotRegistry l_registry = new CSnapshotRegistry( 2 );
+        final IMetric l_metric = l_registry.attach( l_original );
+
+        final double[] l_row = new double[l_snapshots.length];
+        l_metric.row( l_snapshots[0], l_snapshots, 0, l_snapshots.length, l_row );
+        Assert.assertEquals( 2, l_registry.pairs() );
+        for ( int i = 0; i < l_snapshots.length; i++ )
+            Assert.assertEquals( l_original.apply( l_snapshots[0], l_snapshots[i] ).doubleValue(), l_row[i], 0 );
+
+        l_registry.cycle();
+        Assert.assertEquals( 0, l_registry.pairs() );
+
+        l_registry.detach( l_metric );
+        Assert.assertNotSame( l_metric, l_registry.attach( l_original ) );
+    }
+
+
+    /**
+     * test row metric values against the pairwise values
+     */
+    @Test
+    public void rowmetric()
+    {
+        Assumptions.assumeTrue( Objects.nonNull( m_agentgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_viewgenerator ) );
+        Assumptions.assumeTrue( Objects.nonNull( m_literals ) );
+        Assumptions.assumeFalse( m_literals.isEmpty(), ASSUMEMESSAGE );
+
+        final IFilter l_filter = new CAllFilter();
+        final ISnapshot[] l_snapshots = {
+            l_filter.snapshot( this.agent( m_literals ) ),
+            l_filter.snapshot( this.agent( Stream.of( CLiteral.of( "ncd" ), CLiteral.of( "xxx" ) ).collect( Collectors.toSet() ) ) ),
+            l_filter.snapshot( this.agent( Stream.of( CLiteral.of( "toplevel" ), CLiteral.of( "opq" ) ).collect( Collectors.toSet() ) ) ),
+            l_filter.snapshot( this.agent( m_literals ) )
+        };
+
+        Stream.of(
+            new CLevenshteinDistance(), new CSymmetricDifference(), new CWeightedDifference(), new CDiscreteDistance(),
+            new CCompositeMetric( new double[]{2, 0.5, 1}, new CSymmetricDifference(), new CLevenshteinDistance(), new CDiscreteDistance() )
+        ).forEach( i ->
+        {
+            final double[] l_row = new double[l_snapshots.length];
+            i.row( l_snapshots[0], l_snapshots, 1, l_snapshots.length, l_row );
+
+            Assert.assertEquals( 0, l_row[0], 0 );
+            for ( int j = 1; j < l_snapshots.length; j++ )
+                Assert.assertEquals( i.apply( l_snapshots[0], l_snapshots[j] ).doubleValue(), l_row[j], 0 );
+        } );
+    }
+
+
+    /**
+     * test digest of the discrete metric
+     */
+    @Test
+    public void discretedigest()
+    {
+        Assumptions.assumeTrue( Objects.nonNull( m_literals ) );
+        Assumptions.assumeFalse( m_literals.isEmpty(), ASSUMEMESSAGE );
+
+        final ISnapshot l_first = CSnapshot.of( m_literals.stream() );
+        final ISnapshot l_second = CSnapshot.of( m_literals.stream().sorted( Comparator.comparing( ITerm::toString ).reversed() ) );
+        final ISnapshot l_third = CSnapshot.of( Stream.concat( m_literals.stream(), Stream.of( CLiteral.of( "digest" ) ) ) );
+
+        Assert.assertEquals( l_first.lowdigest(), l_second.lowdigest() );
+        Assert.assertEquals( l_first.highdigest(), l_second.highdigest() );
+        Assert.assertNotEquals( l_first.lowdigest(), l_third.lowdigest() );
+        Assert.assertTrue( ISnapshot.equal( l_first, l_second ) );
+
+        Stream.of( new CDiscreteDistance(), new CDiscreteDistance( true ) ).forEach( i ->
+        {
+            Assert.assertEquals( 0, i.apply( l_first, l_second ).doubleValue(), 0 );
+            Assert.assertEquals( 1, i.apply( l_first, l_third ).doubleValue(), 0 );
+            Assert.assertEquals( i.apply( l_first.stream(), l_third.stream() ).doubleValue(), i.apply( l_first, l_third ).doubleValue(), 0 );
+        } );
+    }
+
+
+    /**
+     * test snapshots of terms, which differ in their boundaries only
+     */
+    @Test
+    public void snapshotboundary()
+    {
+        final ISnapshot l_first = CSnapshot.of( Stream.of( CLiteral.of( "ab" ), CLiteral.of( "c" ) ) );
+        final ISnapshot l_second = CSnapshot.of( Stream.of( CLiteral.of( "a" ), CLiteral.of( "bc" ) ) );
+
+        Assert.assertEquals( l_first.string(), l_second.string() );
+        Assert.assertNotEquals( l_first.encoding(), l_second.encoding() );
+        Assert.assertFalse( ISnapshot.equal( l_first, l_second ) );
+        Assert.assertEquals( 1, new CDiscreteDistance( true ).apply( l_first, l_second ).doubleValue(), 0 );
+    }
+
+    /**
+     * test levenshtein distance of snapshots with non-ascii terms against the term stream distance
+     */
+    @Test
+    public void levenshteinunicode()
+    {
+        final ISnapshot[] l_snapshots = {
+            CSnapshot.of( Stream.of( CRawTerm.of( "grüße" ), CRawTerm.of( "straße" ) ) ),
+            CSnapshot.of( Stream.of( CRawTerm.of( "grusse" ), CRawTerm.of( "strasse" ) ) ),
+            CSnapshot.of( Stream.of( CRawTerm.of( "日本語" ), CRawTerm.of( "ü" ) ) )
+        };
+        final IMetric l_metric = new CLevenshteinDistance();
+        final double[] l_row = new double[l_snapshots.length];
+        l_metric.row( l_snapshots[0], l_snapshots, 0, l_snapshots.length, l_row );
+
+        for ( int i = 0; i < l_snapshots.length; i++ )
+        {
+            final double l_expected = l_metric.apply( l_snapshots[0].stream(), l_snapshots[i].stream() ).doubleValue();
+            Assert.assertEquals( l_expected, l_metric.apply( l_snapshots[0], l_snapshots[i] ).doubleValue(), 0 );
+            Assert.assertEquals( l_expected, l_row[i], 0 );
+        }
+    }
+
+
     /**
      * runs the check
      *
@@ -0,0 +1,364 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import org.apache.commons.math3.distribution.ZipfDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
+import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.lightjason.agentspeak.agent.IAgent;
+import org.lightjason.agentspeak.consistency.metric.CSymmetricDifference;
+import org.lightjason.agentspeak.language.CLiteral;
+import org.lightjason.agentspeak.testing.IBaseTest;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+
+
+/**
+ * scalability harness of the consistency calculation, the harness runs
+ * with the system property "scalability" only, the population sizes,
+ * overlaps and the time budget of a calculation in milliseconds are set
+ * with the system properties "scalability.sizes", "scalability.overlaps"
+ * and "scalability.budget", e.g. -Dscalability -Dscalability.sizes=1000,10000,100000,
+ * each run is written as a row with time, peak heap and rank correlation to the
+ * comma separated results file of the system property "scalability.report"
+ */
+public final class TestCScalability extends IBaseTest
+{
+    /**
+     * default population sizes
+     */
+    private static final String SIZES = "1000";
+    /**
+     * default overlaps, the probability that a belief is drawn from the shared pool
+     */
+    private static final String OVERLAPS = "0.25,0.75";
+    /**
+     * random seed of the population
+     */
+    private static final long SEED = 42;
+    /**
+     * exponent of the zipf distribution over the shared pool
+     */
+    private static final double EXPONENT = 1.2;
+    /**
+     * number of beliefs of an agent
+     */
+    private static final int TERMS = 16;
+    /**
+     * size of the shared belief pool
+     */
+    private static final int POOL = 4 * TERMS;
+    /**
+     * largest population of the exact numerical reference
+     */
+    private static final int EXACTLIMIT = 2048;
+    /**
+     * largest population of the dense and landmark structure,
+     * both keep a full transition matrix
+     */
+    private static final int DENSELIMIT = 8192;
+    /**
+     * minimal rank correlation of the solver algorithms against the reference
+     */
+    private static final double SOLVERCORRELATION = 0.95;
+    /**
+     * minimal rank correlation of the landmark structure against the reference
+     */
+    private static final double LANDMARKCORRELATION = 0.7;
+    /**
+     * iterations of the calculation
+     */
+    private static final int ITERATION = 100;
+    /**
+     * default time budget of a calculation in milliseconds
+     */
+    private static final String BUDGET = String.valueOf( Long.MAX_VALUE );
+    /**
+     * default results file
+     */
+    private static final String REPORT = "target/scalability.csv";
+    /**
+     * header of the results file
+     */
+    private static final String HEADER = "algorithm,structure,agents,overlap,time ms,peak heap MiB,rank correlation";
+    /**
+     * agent generator
+     */
+    private CAgentGenerator m_agentgenerator;
+
+    /**
+     * test initialize
+     *
+     * @throws Exception on any parsing error
+     */
+    @Before
+    public void initialize() throws Exception
+    {
+        m_agentgenerator = new CAgentGenerator();
+    }
+
+
+    /**
+     * test scalability and ranking of all algorithms and structures
+     *
+     * @throws Exception is thrown on agent generating error
+     */
+    @Test
+    public void scalability() throws Exception
+    {
+        Assume.assumeTrue( "scalability harness is disabled", System.getProperty( "scalability" ) != null );
+        Assume.assumeNotNull( m_agentgenerator );
+
+        final Path l_path = Paths.get( System.getProperty( "scalability.report", REPORT ) ).toAbsolutePath();
+        Files.createDirectories( l_path.getParent() );
+
+        try ( BufferedWriter l_writer = Files.newBufferedWriter( l_path ) )
+        {
+            write( l_writer, HEADER );
+
+            for ( final int l_size : parse( System.getProperty( "scalability.sizes", SIZES ) ).mapToInt( i -> (int) i ).toArray() )
+                for ( final double l_overlap : parse( System.getProperty( "scalability.overlaps", OVERLAPS ) ).toArray() )
+                {
+                    final IAgent<?>[] l_agents = this.population( l_size, l_overlap );
+
+                    final double[] l_reference;
+                    if ( l_size <= EXACTLIMIT )
+                    {
+                        final Map.Entry<String, double[]> l_run = this.run(
+                            l_agents, l_overlap, CMarkowChainConsistency.EAlgorithm.NUMERICAL, CMarkowChainConsistency.EStructure.DENSE
+                        );
+                        write( l_writer, l_run.getKey() + ",reference" );
+                        l_reference = l_run.getValue();
+                    }
+                    else
+                        l_reference = new double[0];
+
+                    for ( final CMarkowChainConsistency.EAlgorithm l_algorithm : CMarkowChainConsistency.EAlgorithm.values() )
+                    {
+                        if ( l_size > DENSELIMIT )
+                        {
+                            write( l_writer, skipped( l_algorithm, CMarkowChainConsistency.EStructure.DENSE, l_size, l_overlap ) );
+                            write( l_writer, skipped( l_algorithm, CMarkowChainConsistency.EStructure.LANDMARK, l_size, l_overlap ) );
+                            continue;
+                        }
+
+                        if ( l_algorithm != CMarkowChainConsistency.EAlgorithm.NUMERICAL )
+                            write( l_writer, ranking(
+                                l_reference,
+                                this.run( l_agents, l_overlap, l_algorithm, CMarkowChainConsistency.EStructure.DENSE ),
+                                SOLVERCORRELATION
+                            ) );
+
+                        if ( l_size <= EXACTLIMIT || l_algorithm != CMarkowChainConsistency.EAlgorithm.NUMERICAL )
+                            write( l_writer, ranking(
+                                l_reference,
+                                this.run( l_agents, l_overlap, l_algorithm, CMarkowChainConsistency.EStructure.LANDMARK ),
+                                LANDMARKCORRELATION
+                            ) );
+                    }
+
+                    write( l_writer, ranking(
+                        l_reference,
+                        this.run( l_agents, l_overlap, CMarkowChainConsistency.EAlgorithm.FIXPOINT, CMarkowChainConsistency.EStructure.INCIDENCE ),
+                        SOLVERCORRELATION
+                    ) );
+                }
+        }
+    }
+
+    /**
+     * generates a synthetic population, each belief is drawn with the overlap
+     * probability from a shared pool with zipf distribution, otherwise it is
+     * unique to the agent
+     *
+     * @param p_size number of agents
+     * @param p_overlap overlap probability
+     * @return agents
+     */
+    @Nonnull
+    private IAgent<?>[] population( @Nonnegative final int p_size, final double p_overlap )
+    {
+        final RandomGenerator l_random = new Well19937c( SEED );
+        final ZipfDistribution l_pool = new ZipfDistribution( l_random, POOL, EXPONENT );
+
+        final IAgent<?>[] l_agents = new IAgent<?>[p_size];
+        for ( int i = 0; i < p_size; i++ )
+        {
+            l_agents[i] = m_agentgenerator.generatesingle();
+            for ( int j = 0; j < TERMS; j++ )
+                l_agents[i].beliefbase().add(
+                    l_random.nextDouble() < p_overlap
+                    ? CLiteral.of( "shared" + l_pool.sample() )
+                    : CLiteral.of( "own" + i + "x" + j )
+                );
+        }
+
+        return l_agents;
+    }
+
+    /**
+     * runs a calculation, checks the time budget and
+     * reports time and peak heap as a row of the results file
+     *
+     * @param p_agents agents
+     * @param p_overlap overlap probability
+     * @param p_algorithm algorithm
+     * @param p_structure structure
+     * @return entry with the report and the consistency values in agent order
+     * @throws Exception on calculation error
+     */
+    @Nonnull
+    private Map.Entry<String, double[]> run( @Nonnull final IAgent<?>[] p_agents, final double p_overlap,
+                          @Nonnull final CMarkowChainConsistency.EAlgorithm p_algorithm,
+                          @Nonnull final CMarkowChainConsistency.EStructure p_structure
+    ) throws Exception
+    {
+        final List<MemoryPoolMXBean> l_pools = ManagementFactory.getMemoryPoolMXBeans()
+                                                                .stream()
+                                                                .filter( i -> i.getType() == MemoryType.HEAP )
+                                                                .collect( Collectors.toList() );
+        l_pools.forEach( MemoryPoolMXBean::resetPeakUsage );
+
+        final IConsistency l_consistency = new CMarkowChainConsistency(
+            p_algorithm,
+            p_structure,
+            CMarkowChainConsistency.DEFAULTFILTER,
+            new CSymmetricDifference(),
+            ITERATION,
+            CMarkowChainConsistency.DEFAULTEPSILON
+        ).add( p_agents );
+
+        final long l_start = System.nanoTime();
+        l_consistency.call();
+        final long l_end = System.nanoTime();
+
+        final String l_report = String.format(
+            Locale.ROOT,
+            "%s,%s,%d,%.2f,%.3f,%d",
+            p_algorithm, p_structure, p_agents.length, p_overlap, ( l_end - l_start ) / 1e6,
+            l_pools.stream().mapToLong( i -> i.getPeakUsage().getUsed() ).sum() >> 20
+        );
+        Assert.assertTrue( l_report, ( l_end - l_start ) / 1000000 <= Long.parseLong( System.getProperty( "scalability.budget", BUDGET ) ) );
+
+        return new AbstractMap.SimpleImmutableEntry<>( l_report, Arrays.stream( p_agents ).mapToDouble( l_consistency::consistency ).toArray() );
+    }
+
+    /**
+     * checks the rank correlation against the reference
+     *
+     * @param p_reference reference values, empty if there is no reference
+     * @param p_run report and values of the run
+     * @param p_correlation minimal rank correlation
+     * @return row of the results file with the rank correlation
+     */
+    @Nonnull
+    private static String ranking( @Nonnull final double[] p_reference, @Nonnull final Map.Entry<String, double[]> p_run,
+                                   final double p_correlation )
+    {
+        if ( p_reference.length == 0 )
+            return p_run.getKey() + ",no reference comparison above " + EXACTLIMIT + " agents";
+
+        // without variance there is no ranking, so the values must be equal
+        if ( Arrays.stream( p_reference ).distinct().count() < 2 )
+        {
+            Assert.assertArrayEquals( p_run.getKey(), p_reference, p_run.getValue(), 1e-3 );
+            return p_run.getKey() + ",equal to the constant reference";
+        }
+
+        final double l_correlation = new SpearmansCorrelation().correlation( p_reference, p_run.getValue() );
+        Assert.assertTrue( p_run.getKey() + " rank correlation " + l_correlation, l_correlation >= p_correlation );
+        return p_run.getKey() + String.format( Locale.ROOT, ",%.4f", l_correlation );
+    }
+
+    /**
+     * row of the results file of a run, which is not executed
+     * because the structure keeps a full transition matrix
+     *
+     * @param p_algorithm algorithm
+     * @param p_structure structure
+     * @param p_size number of agents
+     * @param p_overlap overlap probability
+     * @return row of the results file
+     */
+    @Nonnull
+    private static String skipped( @Nonnull final CMarkowChainConsistency.EAlgorithm p_algorithm,
+                                   @Nonnull final CMarkowChainConsistency.EStructure p_structure,
+                                   @Nonnegative final int p_size, final double p_overlap )
+    {
+        return String.format(
+            Locale.ROOT,
+            "%s,%s,%d,%.2f,,,not run above %d agents",
+            p_algorithm, p_structure, p_size, p_overlap, DENSELIMIT
+        );
+    }
+
+    /**
+     * writes a row to the results file and flushes it,
+     * so a failing run keeps all previous rows
+     *
+     * @param p_writer writer
+     * @param p_row row
+     * @throws IOException on writing error
+     */
+    private static void write( @Nonnull final BufferedWriter p_writer, @Nonnull final String p_row ) throws IOException
+    {
+        p_writer.write( p_row );
+        p_writer.newLine();
+        p_writer.flush();
+    }
+
+    /**
+     * parses a comma separated list of numbers
+     *
+     * @param p_value string
+     * @return numbers
+     */
+    @Nonnull
+    private static DoubleStream parse( @Nonnull final String p_value )
+    {
+        return Arrays.stream( p_value.split( "," ) ).map( String::trim ).filter( i -> !i.isEmpty() ).mapToDouble( Double::parseDouble );
+    }
+
+}
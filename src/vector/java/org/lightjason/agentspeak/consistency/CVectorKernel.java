@@ -0,0 +1,90 @@
+/*
+ * @cond LICENSE
+ * ######################################################################################
+ * # LGPL License                                                                       #
+ * #                                                                                    #
+ * # This file is part of the LightJason                                                #
+ * # Copyright (c) 2015-19, LightJason (info@lightjason.org)                            #
+ * # This program is free software: you can redistribute it and/or modify               #
+ * # it under the terms of the GNU Lesser General Public License as                     #
+ * # published by the Free Software Foundation, either version 3 of the                 #
+ * # License, or (at your option) any later version.                                    #
+ * #                                                                                    #
+ * # This program is distributed in the hope that it will be useful,                    #
+ * # but WITHOUT ANY WARRANTY; without even the implied warranty of                     #
+ * # MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                      #
+ * # GNU Lesser General Public License for more details.                                #
+ * #                                                                                    #
+ * # You should have received a copy of the GNU Lesser General Public License           #
+ * # along with this program. If not, see http://www.gnu.org/licenses/                  #
+ * ######################################################################################
+ * @endcond
+ */
+
+package org.lightjason.agentspeak.consistency;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import javax.annotation.Nonnull;
+
+
+/**
+ * kernel with the vector api, the class is compiled with the
+ * vector profile only and loaded by reflection, so the class
+ * initialization fails if the incubator module is not added
+ */
+final class CVectorKernel implements IKernel
+{
+    /**
+     * preferred species of the platform
+     */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public double dot( @Nonnull final double[] p_first, @Nonnull final double[] p_second )
+    {
+        final int l_bound = SPECIES.loopBound( p_first.length );
+
+        int i = 0;
+        DoubleVector l_sum = DoubleVector.zero( SPECIES );
+        for ( ; i < l_bound; i += SPECIES.length() )
+            l_sum = DoubleVector.fromArray( SPECIES, p_first, i ).fma( DoubleVector.fromArray( SPECIES, p_second, i ), l_sum );
+
+        double l_value = l_sum.reduceLanes( VectorOperators.ADD );
+        for ( ; i < p_first.length; i++ )
+            l_value += p_first[i] * p_second[i];
+        return l_value;
+    }
+
+    @Override
+    public double norm1( @Nonnull final double[] p_values )
+    {
+        final int l_bound = SPECIES.loopBound( p_values.length );
+
+        int i = 0;
+        DoubleVector l_sum = DoubleVector.zero( SPECIES );
+        for ( ; i < l_bound; i += SPECIES.length() )
+            l_sum = l_sum.add( DoubleVector.fromArray( SPECIES, p_values, i ).abs() );
+
+        double l_value = l_sum.reduceLanes( VectorOperators.ADD );
+        for ( ; i < p_values.length; i++ )
+            l_value += Math.abs( p_values[i] );
+        return l_value;
+    }
+
+    @Override
+    public void scale( @Nonnull final double[] p_values, final double p_scale )
+    {
+        final int l_bound = SPECIES.loopBound( p_values.length );
+
+        int i = 0;
+        for ( ; i < l_bound; i += SPECIES.length() )
+            DoubleVector.fromArray( SPECIES, p_values, i ).mul( p_scale ).intoArray( p_values, i );
+
+        for ( ; i < p_values.length; i++ )
+            p_values[i] *= p_scale;
+    }
+
+}